@@ -0,0 +1,87 @@
+import java.util.Arrays;
+
+/**
+ * ArrayDecodeDictionary class is the LZW decompression table on the heap.  Stores each entry as prefix code + suffix
+ * byte in parallel arrays instead of a full String, so adding an entry is O(1) and memory stays constant at capacity
+ * entries.  Entries are written by walking the prefix chain backwards into the caller's output buffer.
+ *
+ * After a reset the first entry (code 256) may extend a string from the previous table, whose codes are about to be
+ * reused.  That entry is copied out in full into a carry buffer, matching what the original String[] table held.
+ */
+public class ArrayDecodeDictionary implements DecodeDictionary {
+
+	/**
+	 * ArrayDecodeDictionary class instance variables
+	 * int[] prefix = code of string without its last byte
+	 * byte[] suffix = last byte of string
+	 * int[] length = length of string in bytes
+	 * byte[] carry = full bytes of the entry carried over a reset
+	 * int carryCode = code of carried entry, or -1 if none
+	 */
+	private int[] prefix;
+	private byte[] suffix;
+	private int[] length;
+	private byte[] carry;
+	private int carryCode = -1;
+
+	/**
+	 * ArrayDecodeDictionary() constructor.
+	 * Int capacity: number of codes in table (eg, 4096 for 12-bit codes).
+	 * Initializes 0 - 255 single-byte entries.
+	 */
+	public ArrayDecodeDictionary(int capacity){
+		prefix = new int[capacity];
+		suffix = new byte[capacity];
+		length = new int[capacity];
+		carry = new byte[capacity];
+		for(int i = 0; i < 256; i++){
+			prefix[i] = -1;
+			suffix[i] = (byte) i;
+			length[i] = 1;
+		}
+	}
+
+	public void add(int prefix, int first, int code){
+		if(prefix >= code){
+			//prefix belongs to the table before reset, copy its bytes before its code is reused
+			int len = length[prefix] + 1;
+			if(len > carry.length){
+				carry = Arrays.copyOf(carry, len * 2);
+			}
+			write(prefix, carry, 0);
+			carry[len - 1] = (byte) first;
+			carryCode = code;
+			length[code] = len;
+			return;
+		}
+		if(code == carryCode){
+			carryCode = -1;
+		}
+		this.prefix[code] = prefix;
+		suffix[code] = (byte) first;
+		length[code] = length[prefix] + 1;
+	}
+
+	public int capacity(){
+		return prefix.length;
+	}
+
+	public int length(int code){
+		return length[code];
+	}
+
+	public int write(int code, byte[] out, int off){
+		int len = length[code];
+		int pos = off + len;
+		while(code >= 256){
+			if(code == carryCode){
+				System.arraycopy(carry, 0, out, off, pos - off);
+				return len;
+			}
+			out[--pos] = suffix[code];
+			code = prefix[code];
+		}
+		out[--pos] = (byte) code;
+		return len;
+	}
+}
@@ -0,0 +1,95 @@
+import java.util.Arrays;
+
+/**
+ * ArrayDictionary class is a direct-indexed LZW compression table.  Holds one int slot for every (prefix code, byte)
+ * pair, so lookup() is a single array read.  Uses capacity * 256 ints (4MB for 12-bit codes).
+ *
+ * Each slot carries the generation stamp of the table its code was added to.  reset() only starts a new generation,
+ * and slots stamped with an older one (other than the generation kept by mark()) count as empty, so frequent resets
+ * cost nothing however large the table is.  Slots are only cleared for real when the stamps run out, once every
+ * MAX_GENERATION resets.
+ */
+public class ArrayDictionary implements LZWDictionary {
+
+	/**
+	 * ArrayDictionary class constants
+	 * CODE_BITS = bits of a code (up to 16-bit codes), the stamp is kept above them
+	 * MAX_GENERATION = largest generation stamp
+	 */
+	public static final int CODE_BITS = 16;
+	public static final int MAX_GENERATION = (1 << (32 - CODE_BITS)) - 1;
+
+	/**
+	 * ArrayDictionary class instance variables
+	 * int[] child = generation << CODE_BITS | code of prefix + byte stored at [prefix * 256 + byte], 0 when never used
+	 * int generation = stamp of codes added since the last reset()
+	 * int kept = stamp of codes kept across reset() by mark(), 0 if none
+	 */
+	private int[] child;
+	private int generation = 1;
+	private int kept;
+
+	/**
+	 * ArrayDictionary() constructor.
+	 * Int capacity: number of codes in table (eg, 4096 for 12-bit codes).
+	 */
+	public ArrayDictionary(int capacity){
+		child = new int[capacity * 256];
+	}
+
+	public int lookup(int prefix, int next){
+		int entry = child[(prefix << 8) | next];
+		int stamp = entry >>> CODE_BITS;
+		return stamp == generation || (stamp == kept && entry != 0) ? entry & ((1 << CODE_BITS) - 1) : -1;
+	}
+
+	/**
+	 * add() method enters prefix + next under code.  A prefix that is not yet defined in this table (eg, a code carried
+	 * over from before reset()) cannot be matched again, so it is not entered.
+	 */
+	public void add(int prefix, int next, int code){
+		if(prefix >= code){
+			return;
+		}
+		child[(prefix << 8) | next] = (generation << CODE_BITS) | code;
+	}
+
+	/**
+	 * reset() method starts a new generation, leaving the codes kept by mark().
+	 */
+	public void reset(){
+		if(generation == MAX_GENERATION){
+			restamp();
+		}
+		generation++;
+	}
+
+	public void mark(){
+		kept = generation;
+		reset();
+	}
+
+	public void clear(){
+		kept = 0;
+		reset();
+	}
+
+	/**
+	 * restamp() method clears every slot but the kept codes, which are stamped generation 1, once the stamps have run
+	 * out.
+	 */
+	private void restamp(){
+		if(kept == 0){
+			Arrays.fill(child, 0);
+			generation = 0;
+			return;
+		}
+		int low = (1 << CODE_BITS) - 1;
+		for(int i = 0; i < child.length; i++){
+			int entry = child[i];
+			child[i] = entry != 0 && entry >>> CODE_BITS == kept ? (1 << CODE_BITS) | (entry & low) : 0;
+		}
+		kept = 1;
+		generation = 1;
+	}
+}
@@ -0,0 +1,509 @@
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.channels.CompletionHandler;
+import java.nio.file.*;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.concurrent.*;
+import java.util.function.BiConsumer;
+
+/**
+ * AsyncCompression class compresses and decompresses files without holding a thread while waiting for the disk.  Files
+ * are read and written through AsynchronousFileChannel in CHUNK sized pieces, and each piece is coded on a
+ * configurable Executor once it has arrived, so hundreds of files can be in flight on a handful of threads.  Every call
+ * returns at once with a CompletableFuture of the run's CompressionStats (bytes in and out, codes, time reading, coding
+ * and writing), completed exceptionally if the run fails.
+ *
+ * Compression is pushed through an LZWOutputStream: read a chunk, code it on the executor, write what came out, then
+ * read the next.  Decompression pulls from an LZWInputStream, so compressed input is read ahead (up to READ_AHEAD
+ * chunks) and each CHUNK of output is only decoded once half of that is buffered or input has ended; a decode step
+ * that needs more than that (eg, blocks larger than the read-ahead) waits on the executor for reads already in flight.
+ *
+ * Settings (code width, reset policy, blocks, trained dictionary, ...) are taken from an LZWCompression, whose file
+ * methods keep no per-call state, so one instance serves every call.  Its listener is not called; use the returned
+ * future instead (eg, future.thenAccept(metrics::completed)).  The expansion policy, checkpoints and pipelining of
+ * LZWCompress do not apply here (the estimate and checkpoints read the input file on their own, and reads are never
+ * waited on), so settings with any of them are rejected.  A run that fails or is cancelled (eg, future.cancel())
+ * closes its codec, returning its tables and stopping its block threads; output written so far is left in place.
+ */
+public class AsyncCompression {
+
+	/**
+	 * AsyncCompression class constants
+	 * CHUNK = bytes read, coded and written per step
+	 * READ_AHEAD = chunks of compressed input buffered ahead of the decoder
+	 * HANDLER = completes the CompletableFuture attached to a channel read or write
+	 */
+	public static final int CHUNK = 1 << 20;
+	public static final int READ_AHEAD = 4;
+	private static final CompletionHandler<Integer, CompletableFuture<Integer>> HANDLER =
+			new CompletionHandler<Integer, CompletableFuture<Integer>>(){
+		public void completed(Integer bytes, CompletableFuture<Integer> done){
+			done.complete(bytes);
+		}
+
+		public void failed(Throwable e, CompletableFuture<Integer> done){
+			done.completeExceptionally(e);
+		}
+	};
+
+	/**
+	 * AsyncCompression class instance variables
+	 * LZWCompression settings = settings every file is compressed or decompressed with
+	 * Executor executor = runs the coding of every chunk
+	 */
+	private LZWCompression settings;
+	private Executor executor;
+
+	/**
+	 * AsyncCompression() constructor.
+	 * LZWCompression settings: settings every file is compressed or decompressed with.
+	 * Uses the common ForkJoinPool for coding.
+	 */
+	public AsyncCompression(LZWCompression settings){
+		this(settings, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * AsyncCompression() constructor.
+	 * LZWCompression settings: settings every file is compressed or decompressed with.
+	 * Executor executor: runs the coding of every chunk; at most one chunk of a file is coded at a time.
+	 * Post-Condition: throws IllegalArgumentException if settings use an expansion policy, checkpoints or pipelining.
+	 */
+	public AsyncCompression(LZWCompression settings, Executor executor){
+		if(settings.expansionPolicy() != ExpansionPolicy.COMPRESS || settings.checkpointInterval() > 0
+				|| settings.pipelined()){
+			throw new IllegalArgumentException("Expansion policy, checkpoints and pipelining apply to LZWCompress only");
+		}
+		this.settings = settings;
+		this.executor = executor;
+	}
+
+	/**
+	 * compress() method starts compressing input into output.
+	 * Post-Condition: returns future of the stats of the run.
+	 */
+	public CompletableFuture<CompressionStats> compress(Path input, Path output){
+		try{
+			return new Compress(input, output).start();
+		} catch(IOException | RuntimeException e){
+			return CompletableFuture.failedFuture(e);
+		}
+	}
+
+	/**
+	 * decompress() method starts decompressing input into output.
+	 * Post-Condition: returns future of the stats of the run.
+	 */
+	public CompletableFuture<CompressionStats> decompress(Path input, Path output){
+		try{
+			return new Decompress(input, output).start();
+		} catch(IOException | RuntimeException e){
+			return CompletableFuture.failedFuture(e);
+		}
+	}
+
+	/**
+	 * Step interface is one piece of coding run on the executor.
+	 */
+	private interface Step {
+		void run() throws IOException;
+	}
+
+	/**
+	 * Run class holds the channels, positions and stats of one file, and the reads, writes and steps they share.
+	 */
+	private abstract class Run {
+		protected CompressionStats stats;
+		protected long start = System.nanoTime();
+		protected AsynchronousFileChannel source;
+		protected AsynchronousFileChannel target;
+		protected long readposition;
+		protected long writeposition;
+		protected CompletableFuture<CompressionStats> result = new CompletableFuture<CompressionStats>();
+
+		protected Run(Path input, Path output, boolean compression) throws IOException {
+			stats = new CompressionStats(compression);
+			source = AsynchronousFileChannel.open(input, StandardOpenOption.READ);
+			try{
+				target = AsynchronousFileChannel.open(output, StandardOpenOption.WRITE, StandardOpenOption.CREATE,
+						StandardOpenOption.TRUNCATE_EXISTING);
+			} catch(IOException e){
+				source.close();
+				throw e;
+			}
+		}
+
+		/**
+		 * read() method reads the next bytes of input into buffer.
+		 * Post-Condition: returns future of bytes read, -1 at end of input.
+		 */
+		protected CompletableFuture<Integer> read(ByteBuffer buffer){
+			long begin = System.nanoTime();
+			CompletableFuture<Integer> done = new CompletableFuture<Integer>();
+			source.read(buffer, readposition, done, HANDLER);
+			return done.thenApply(bytes -> {
+				stats.addRead(Math.max(bytes, 0), System.nanoTime() - begin);
+				readposition += Math.max(bytes, 0);
+				return bytes;
+			});
+		}
+
+		/**
+		 * write() method appends len bytes of b to output.
+		 * Post-Condition: returns future completed once every byte is written.
+		 */
+		protected CompletableFuture<Void> write(byte[] b, int len){
+			CompletableFuture<Void> done = new CompletableFuture<Void>();
+			write(ByteBuffer.wrap(b, 0, len), System.nanoTime(), done);
+			return done;
+		}
+
+		/**
+		 * write() method writes the remaining bytes of data, one channel write after another.
+		 */
+		private void write(ByteBuffer data, long begin, CompletableFuture<Void> done){
+			if(!data.hasRemaining()){
+				stats.addWritten(data.limit(), System.nanoTime() - begin);
+				done.complete(null);
+				return;
+			}
+			CompletableFuture<Integer> wrote = new CompletableFuture<Integer>();
+			target.write(data, writeposition, wrote, HANDLER);
+			wrote.whenComplete((bytes, e) -> {
+				if(e != null){
+					done.completeExceptionally(e);
+					return;
+				}
+				writeposition += bytes;
+				write(data, begin, done);
+			});
+		}
+
+		/**
+		 * step() method runs step on the executor, failing the run if it throws or the executor rejects it.
+		 */
+		protected void step(Step step){
+			try{
+				executor.execute(() -> {
+					try{
+						step.run();
+					} catch(Throwable e){
+						fail(e);
+					}
+				});
+			} catch(RejectedExecutionException e){
+				fail(e);
+			}
+		}
+
+		/**
+		 * then() method returns a completion action running next, or failing the run if the action it follows failed.
+		 */
+		protected <T> BiConsumer<T, Throwable> then(Runnable next){
+			return (value, e) -> {
+				if(e != null){
+					fail(e);
+				} else {
+					next.run();
+				}
+			};
+		}
+
+		/**
+		 * finish() method closes both files and completes the run with its stats.
+		 */
+		protected void finish(){
+			try{
+				source.close();
+				target.close();
+			} catch(IOException e){
+				fail(e);
+				return;
+			}
+			stats.finish(System.nanoTime() - start);
+			result.complete(stats);
+		}
+
+		/**
+		 * fail() method closes the codec and both files and completes the run with e.  Only called while the codec is
+		 * idle (from a step that threw, or between steps), so it is never closed under a running step.  Output written
+		 * so far is left in place.
+		 */
+		protected void fail(Throwable e){
+			Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+			try{
+				release();
+			} catch(Throwable suppressed){
+				cause.addSuppressed(suppressed);
+			}
+			try{
+				source.close();
+				target.close();
+			} catch(IOException suppressed){
+				cause.addSuppressed(suppressed);
+			}
+			result.completeExceptionally(cause);
+		}
+
+		/**
+		 * release() method closes the codec of this run, returning its tables (see DictionaryType.OFFHEAP) and
+		 * stopping its block threads.  Closing twice does nothing more.
+		 */
+		protected abstract void release() throws IOException;
+	}
+
+	/**
+	 * Compress class reads a chunk, encodes it on the executor and writes the codewords that came out, until input
+	 * ends.
+	 */
+	private class Compress extends Run {
+		private ByteBuffer chunk = ByteBuffer.allocate(CHUNK);
+		private Output coded = new Output();
+		private LZWOutputStream codec;
+
+		private Compress(Path input, Path output) throws IOException {
+			super(input, output, true);
+			codec = settings.compressTo(coded);
+			codec.setStats(stats);
+		}
+
+		private CompletableFuture<CompressionStats> start(){
+			next();
+			return result;
+		}
+
+		private void next(){
+			if(result.isCancelled()){
+				fail(new CancellationException());
+				return;
+			}
+			chunk.clear();
+			read(chunk).whenComplete((bytes, e) -> {
+				if(e != null){
+					fail(e);
+					return;
+				}
+				step(() -> {
+					if(bytes < 0){
+						codec.close();
+						write(coded.buffer(), coded.size()).whenComplete(then(this::finish));
+						return;
+					}
+					if(result.isCancelled()){
+						throw new CancellationException();
+					}
+					codec.write(chunk.array(), 0, bytes);
+					write(coded.buffer(), coded.size()).whenComplete(then(() -> {
+						coded.reset();
+						next();
+					}));
+				});
+			});
+		}
+
+		protected void release() throws IOException {
+			codec.close();
+		}
+	}
+
+	/**
+	 * Decompress class reads compressed input ahead into a Feed, and decodes a CHUNK of output on the executor
+	 * whenever enough of it is buffered and the previous output has been written.
+	 */
+	private class Decompress extends Run {
+		private Feed feed = new Feed(this::prefetch);
+		private LZWInputStream codec;
+		private byte[] decoded = new byte[CHUNK];
+		private boolean reading;
+		private boolean waiting = true;
+
+		private Decompress(Path input, Path output) throws IOException {
+			super(input, output, false);
+			codec = settings.decompressFrom(feed);
+			codec.setStats(stats);
+		}
+
+		private CompletableFuture<CompressionStats> start(){
+			prefetch();
+			return result;
+		}
+
+		/**
+		 * prefetch() method reads the next chunk of input unless a read is in flight or READ_AHEAD chunks are buffered.
+		 * A failed read or a cancelled run fails the feed rather than the run, since a decode step may be running:
+		 * the next decode step fails the run once it reads past what is buffered.
+		 */
+		private void prefetch(){
+			if(result.isCancelled() && !feed.done()){
+				feed.fail(new CancellationException());
+				ready();
+				return;
+			}
+			synchronized(this){
+				if(reading || result.isDone() || feed.done() || feed.buffered() >= (long) READ_AHEAD * CHUNK){
+					return;
+				}
+				reading = true;
+			}
+			ByteBuffer chunk = ByteBuffer.allocate(CHUNK);
+			read(chunk).whenComplete((bytes, e) -> {
+				synchronized(this){
+					reading = false;
+				}
+				if(e != null){
+					feed.fail(e);
+					ready();
+					return;
+				}
+				if(bytes < 0){
+					feed.end();
+				} else {
+					feed.add(chunk.array(), bytes);
+				}
+				prefetch();
+				ready();
+			});
+		}
+
+		/**
+		 * ready() method decodes the next CHUNK on the executor if the previous one is written and half of READ_AHEAD
+		 * is buffered (or input has ended).
+		 */
+		private void ready(){
+			synchronized(this){
+				if(!waiting || !(feed.done() || feed.buffered() >= (long) READ_AHEAD / 2 * CHUNK)){
+					return;
+				}
+				waiting = false;
+			}
+			step(() -> {
+				int bytes = codec.readNBytes(decoded, 0, CHUNK);
+				if(bytes == 0){
+					codec.close();
+					finish();
+					return;
+				}
+				if(result.isCancelled()){
+					throw new CancellationException();
+				}
+				write(decoded, bytes).whenComplete(then(() -> {
+					synchronized(this){
+						waiting = true;
+					}
+					ready();
+				}));
+			});
+		}
+
+		protected void release() throws IOException {
+			codec.close();
+		}
+	}
+
+	/**
+	 * Output class is a ByteArrayOutputStream whose buffer is written to the channel without copying.
+	 */
+	private static class Output extends ByteArrayOutputStream {
+		private Output(){
+			super(CHUNK);
+		}
+
+		private byte[] buffer(){
+			return buf;
+		}
+	}
+
+	/**
+	 * Feed class is the InputStream the decoder pulls compressed input from.  Chunks are added as reads complete;
+	 * read() waits only if the decoder gets ahead of them, and asks for more input each time a chunk is used up.
+	 */
+	private static class Feed extends InputStream {
+		private ArrayDeque<byte[]> chunks = new ArrayDeque<byte[]>();
+		private byte[] current = new byte[0];
+		private int pos;
+		private long buffered;
+		private boolean ended;
+		private Throwable error;
+		private Runnable hungry;
+
+		private Feed(Runnable hungry){
+			this.hungry = hungry;
+		}
+
+		private synchronized void add(byte[] b, int len){
+			byte[] chunk = len == b.length ? b : Arrays.copyOf(b, len);
+			chunks.add(chunk);
+			buffered += len;
+			notifyAll();
+		}
+
+		private synchronized void end(){
+			ended = true;
+			notifyAll();
+		}
+
+		private synchronized void fail(Throwable e){
+			error = e;
+			notifyAll();
+		}
+
+		private synchronized boolean ended(){
+			return ended;
+		}
+
+		private synchronized boolean done(){
+			return ended || error != null;
+		}
+
+		private synchronized long buffered(){
+			return buffered;
+		}
+
+		public int read() throws IOException {
+			byte[] single = new byte[1];
+			return read(single, 0, 1) < 0 ? -1 : single[0] & 0xFF;
+		}
+
+		public int read(byte[] b, int off, int len) throws IOException {
+			if(len == 0){
+				return 0;
+			}
+			int n;
+			boolean used = false;
+			synchronized(this){
+				while(pos == current.length){
+					if(!chunks.isEmpty()){
+						current = chunks.poll();
+						pos = 0;
+						used = true;
+					} else if(error != null){
+						throw new IOException("Read failed", error);
+					} else if(ended){
+						return -1;
+					} else {
+						try{
+							wait();
+						} catch(InterruptedException e){
+							Thread.currentThread().interrupt();
+							throw new InterruptedIOException("Interrupted waiting for input");
+						}
+					}
+				}
+				n = Math.min(len, current.length - pos);
+				System.arraycopy(current, pos, b, off, n);
+				pos += n;
+				buffered -= n;
+			}
+			if(used){
+				hungry.run();
+			}
+			return n;
+		}
+
+		public synchronized int available(){
+			return (int) Math.min(Integer.MAX_VALUE, buffered);
+		}
+	}
+}
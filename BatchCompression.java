@@ -0,0 +1,242 @@
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+import java.util.stream.Stream;
+
+/**
+ * BatchCompression class compresses or decompresses many files in one JVM.  Inputs are files, directories (searched
+ * recursively) or glob patterns such as "logs/**.log".  Files run on a work-stealing ForkJoinPool with one worker per
+ * processor by default, submitted largest first so a big file found last does not leave one worker busy long after
+ * the others are done.  A failed file is reported and counted without stopping the batch.  Ends with a summary of
+ * files, bytes and throughput.  Under ExpansionPolicy STORE or SKIP (-e), files predicted to expand are stored or
+ * skipped and counted in the summary.
+ *
+ * Compressed files are written next to their input with ".lzw" appended, or under an output directory keeping their
+ * path relative to the directory or pattern they were found in; decompression removes ".lzw" (or appends ".out").
+ */
+public class BatchCompression {
+
+	/**
+	 * BatchCompression class constants
+	 * SUFFIX = file name suffix of compressed files
+	 */
+	public static final String SUFFIX = ".lzw";
+
+	/**
+	 * BatchCompression class instance variables
+	 * LZWCompression codec = settings every file is compressed with (its file methods keep no per-call state)
+	 * boolean compress = files are compressed (true) or decompressed (false)
+	 * int jobs = number of files worked on at once
+	 * Path outdir = directory outputs are written under, null to write them next to their input
+	 * List<Path[]> files = input and output of every file added
+	 * Map<Path, Long> sizes = input file length of every file added
+	 */
+	private LZWCompression codec;
+	private boolean compress;
+	private int jobs;
+	private Path outdir;
+	private List<Path[]> files = new ArrayList<Path[]>();
+	private Map<Path, Long> sizes = new HashMap<Path, Long>();
+
+	/**
+	 * BatchCompression() constructor.
+	 * LZWCompression codec: settings every file is compressed or decompressed with.
+	 * Boolean compress: compress (true) or decompress (false).
+	 * Int jobs: number of files worked on at once, 0 for one per processor.
+	 * Path outdir: directory outputs are written under, null to write them next to their input.
+	 */
+	public BatchCompression(LZWCompression codec, boolean compress, int jobs, Path outdir){
+		this.codec = codec;
+		this.compress = compress;
+		this.jobs = jobs > 0 ? jobs : Runtime.getRuntime().availableProcessors();
+		this.outdir = outdir;
+	}
+
+	/**
+	 * add() method adds a file, every file under a directory, or every file matching a glob pattern (*, ?, [ ], { }
+	 * and ** across directories).  When decompressing, only files ending in ".lzw" are taken from directories and
+	 * patterns; when compressing, those are left out.
+	 * Post-Condition: returns number of files added.
+	 */
+	public int add(String pattern) throws IOException {
+		//split pattern into the directory it starts in and the part holding wildcards
+		int wild = -1;
+		for(int i = 0; i < pattern.length() && wild < 0; i++){
+			if("*?[{".indexOf(pattern.charAt(i)) >= 0){
+				wild = i;
+			}
+		}
+		Path base;
+		PathMatcher matcher = null;
+		if(wild < 0){
+			base = Paths.get(pattern);
+			if(!Files.isDirectory(base)){
+				if(!Files.isRegularFile(base)){
+					return 0;
+				}
+				return add(base.getParent() == null ? Paths.get("") : base.getParent(), base, true);
+			}
+		} else {
+			int slash = pattern.lastIndexOf('/', wild);
+			base = Paths.get(slash < 0 ? "." : pattern.substring(0, slash + 1));
+			matcher = FileSystems.getDefault().getPathMatcher("glob:" + pattern.substring(slash + 1));
+		}
+
+		int count = 0;
+		try(Stream<Path> walk = Files.walk(base)){
+			for(Path file : (Iterable<Path>) walk::iterator){
+				if(Files.isRegularFile(file) && (matcher == null || matcher.matches(base.relativize(file)))){
+					count += add(base, file, false);
+				}
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * run() method compresses or decompresses every file added, largest first, and prints a summary.
+	 * Post-Condition: returns number of files that failed.
+	 */
+	public int run(){
+		files.sort((a, b) -> Long.compare(sizes.get(b[0]), sizes.get(a[0])));
+		AtomicLong bytesin = new AtomicLong();
+		AtomicLong bytesout = new AtomicLong();
+		AtomicInteger failed = new AtomicInteger();
+		AtomicInteger stored = new AtomicInteger();
+		AtomicInteger skipped = new AtomicInteger();
+		long start = System.nanoTime();
+
+		ForkJoinPool pool = new ForkJoinPool(jobs);
+		try{
+			List<ForkJoinTask<?>> tasks = new ArrayList<ForkJoinTask<?>>(files.size());
+			for(Path[] file : files){
+				tasks.add(pool.submit(() -> {
+					try{
+						ExpansionPolicy plan = process(file[0], file[1]);
+						if(plan == ExpansionPolicy.SKIP){
+							skipped.incrementAndGet();
+							return;
+						}
+						if(plan == ExpansionPolicy.STORE){
+							stored.incrementAndGet();
+						}
+						bytesin.addAndGet(Files.size(file[0]));
+						bytesout.addAndGet(Files.size(file[1]));
+					} catch(Throwable e){
+						//any failure, OutOfMemoryError included, fails this file only, so the summary is always printed
+						failed.incrementAndGet();
+						System.err.println("Failed " + file[0] + ": " + e);
+					}
+				}));
+			}
+			for(ForkJoinTask<?> task : tasks){
+				task.join();
+			}
+		} finally{
+			pool.shutdown();
+		}
+
+		double seconds = (System.nanoTime() - start) / 1e9;
+		int done = files.size() - failed.get() - skipped.get();
+		System.out.printf("%s %d files (%d failed, %d stored, %d skipped) with %d jobs: %d bytes in, %d bytes out "
+				+ "(%.1f%%), %.3f s, %.1f MB/s, %.1f files/s%n", compress ? "Compressed" : "Decompressed", done,
+				failed.get(), stored.get(), skipped.get(), jobs,
+				bytesin.get(), bytesout.get(), bytesin.get() == 0 ? 0 : 100.0 * bytesout.get() / bytesin.get(),
+				seconds, (compress ? bytesin.get() : bytesout.get()) / 1e6 / seconds, done / seconds);
+		return failed.get();
+	}
+
+	/**
+	 * add() method adds one file found under base, unless it was already added.
+	 * Boolean named: file was named on its own, so it is taken whatever its suffix.
+	 * Post-Condition: returns 1 if file was added, 0 if not.
+	 */
+	private int add(Path base, Path file, boolean named) throws IOException {
+		boolean compressed = file.getFileName().toString().endsWith(SUFFIX);
+		if((!named && compressed == compress) || sizes.containsKey(file)){
+			return 0;
+		}
+		String name = file.getFileName().toString();
+		if(compress){
+			name += SUFFIX;
+		} else {
+			name = compressed ? name.substring(0, name.length() - SUFFIX.length()) : name + ".out";
+		}
+		Path target = file.resolveSibling(name);
+		if(outdir != null){
+			Path relative = base.toAbsolutePath().normalize().relativize(target.toAbsolutePath().normalize());
+			target = outdir.resolve(relative);
+		}
+		sizes.put(file, Files.size(file));
+		files.add(new Path[] {file, target});
+		return 1;
+	}
+
+	/**
+	 * process() method compresses or decompresses one file.
+	 * Post-Condition: returns what was done with a file compressed (see LZWCompression.plan()), COMPRESS when
+	 * decompressing.
+	 */
+	private ExpansionPolicy process(Path input, Path output) throws IOException {
+		ExpansionPolicy plan = compress ? codec.plan(input.toString()) : ExpansionPolicy.COMPRESS;
+		if(plan == ExpansionPolicy.SKIP){
+			return plan;
+		}
+		if(output.getParent() != null){
+			Files.createDirectories(output.getParent());
+		}
+		if(compress){
+			try(InputStream read = new MappedInputStream(input.toString());
+					OutputStream out = plan == ExpansionPolicy.STORE ? codec.storeTo(new ChannelOutputStream(
+							output.toString())) : codec.compressTo(new ChannelOutputStream(output.toString()))){
+				read.transferTo(out);
+			}
+		} else {
+			try(InputStream read = codec.decompressFrom(new MappedInputStream(input.toString()));
+					OutputStream out = new ChannelOutputStream(output.toString())){
+				read.transferTo(out);
+			}
+		}
+		return plan;
+	}
+
+	/**
+	 * main() method of batch compression.
+	 * Can be executed from command line utilizing syntax:
+	 * java BatchCompression c|d [-j jobs] [-o outdir] file|directory|pattern... [-- compression options]
+	 * Compression options are those of LZWCompression (see LZWCompression.withOptions()).  Quote patterns so the
+	 * shell does not expand them.
+	 */
+	public static void main(String[] args) throws IOException {
+		if(args.length < 2 || (!args[0].equals("c") && !args[0].equals("d"))){
+			System.out.println("Usage: java BatchCompression c|d [-j jobs] [-o outdir] file|directory|pattern... "
+					+ "[-- compression options]");
+			return;
+		}
+		int jobs = 0;
+		Path outdir = null;
+		List<String> patterns = new ArrayList<String>();
+		int i = 1;
+		for(; i < args.length && !args[i].equals("--"); i++){
+			if(args[i].equals("-j") && i + 1 < args.length){
+				jobs = Integer.parseInt(args[++i]);
+			} else if(args[i].equals("-o") && i + 1 < args.length){
+				outdir = Paths.get(args[++i]);
+			} else {
+				patterns.add(args[i]);
+			}
+		}
+		LZWCompression codec = LZWCompression.withOptions(args, i + 1);
+		BatchCompression batch = new BatchCompression(codec, args[0].equals("c"), jobs, outdir);
+		for(String pattern : patterns){
+			if(batch.add(pattern) == 0){
+				System.err.println("No files match " + pattern);
+			}
+		}
+		if(batch.run() > 0){
+			System.exit(1);
+		}
+	}
+}
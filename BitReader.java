@@ -0,0 +1,96 @@
+import java.io.*;
+
+/**
+ * BitReader class unpacks codes (1 - 24 bits) written most significant bit first by BitWriter.  Reads the InputStream
+ * in large chunks into a reusable byte buffer and extracts codes with shift/mask operations, so no objects are created
+ * per code.  Padding bits at the end of the input (fewer than one code) are ignored.
+ */
+public class BitReader {
+
+	/**
+	 * BitReader class instance variables
+	 * InputStream in = source of packed bytes, null when reading a byte[] in place
+	 * byte[] buffer = bytes read from in
+	 * int pos = next unread byte in buffer
+	 * int limit = number of valid bytes in buffer
+	 * long bits = pending bits, lowest count bits are valid
+	 * int count = number of pending bits
+	 */
+	private InputStream in;
+	private byte[] buffer;
+	private int pos;
+	private int limit;
+	private long bits;
+	private int count;
+
+	/**
+	 * BitReader() constructor.
+	 * InputStream in: source of packed bytes.
+	 */
+	public BitReader(InputStream in){
+		this(in, 8192);
+	}
+
+	/**
+	 * BitReader() constructor.
+	 * InputStream in: source of packed bytes.
+	 * Int size: size of internal byte buffer.
+	 */
+	public BitReader(InputStream in, int size){
+		this.in = in;
+		buffer = new byte[size];
+	}
+
+	/**
+	 * BitReader() constructor.
+	 * Byte[] b: packed bytes, read in place without copying.
+	 * Int off: first packed byte in b.
+	 * Int len: number of packed bytes.
+	 */
+	public BitReader(byte[] b, int off, int len){
+		buffer = b;
+		pos = off;
+		limit = off + len;
+	}
+
+	/**
+	 * read() method returns the next width-bit code.
+	 * Int width: number of bits to read (1 - 24).
+	 * Post-Condition: returns code, or -1 if fewer than width bits remain.
+	 */
+	public int read(int width) throws IOException {
+		while(count < width){
+			if(pos == limit){
+				if(in == null){
+					return -1;
+				}
+				limit = in.read(buffer, 0, buffer.length);
+				pos = 0;
+				if(limit <= 0){
+					limit = 0;
+					return -1;
+				}
+			}
+			bits = (bits << 8) | (buffer[pos++] & 0xFF);
+			count += 8;
+		}
+		count -= width;
+		return (int) (bits >>> count) & ((1 << width) - 1);
+	}
+
+	/**
+	 * align() method discards bits up to the next byte boundary.
+	 */
+	public void align(){
+		count -= count % 8;
+	}
+
+	/**
+	 * close() method closes the InputStream.
+	 */
+	public void close() throws IOException {
+		if(in != null){
+			in.close();
+		}
+	}
+}
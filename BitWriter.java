@@ -0,0 +1,123 @@
+import java.io.*;
+
+/**
+ * BitWriter class packs fixed or variable width codes (1 - 24 bits) most significant bit first into a reusable byte
+ * buffer and writes the buffer to an OutputStream when full.  Two 12-bit codes fill exactly three bytes, matching the
+ * format LZWCompression and Compressor have always written.  Uses shift/mask operations only, so no objects are created
+ * per code.
+ */
+public class BitWriter {
+
+	/**
+	 * BitWriter class instance variables
+	 * OutputStream out = destination of packed bytes
+	 * byte[] buffer = packed bytes not yet written to out
+	 * int pos = number of bytes in buffer
+	 * long bits = pending bits, lowest count bits are valid
+	 * int count = number of pending bits (always less than 8 between calls)
+	 */
+	private OutputStream out;
+	private byte[] buffer;
+	private int pos;
+	private long bits;
+	private int count;
+
+	/**
+	 * BitWriter() constructor.
+	 * OutputStream out: destination of packed bytes.
+	 */
+	public BitWriter(OutputStream out){
+		this(out, 8192);
+	}
+
+	/**
+	 * BitWriter() constructor.
+	 * OutputStream out: destination of packed bytes.
+	 * Int size: size of internal byte buffer.
+	 */
+	public BitWriter(OutputStream out, int size){
+		this.out = out;
+		buffer = new byte[size];
+	}
+
+	/**
+	 * write() method appends the lowest width bits of code.
+	 * Int code: value to write, 0 <= code < 2^width.
+	 * Int width: number of bits to write (1 - 24).
+	 */
+	public void write(int code, int width) throws IOException {
+		bits = (bits << width) | code;
+		count += width;
+		while(count >= 8){
+			count -= 8;
+			buffer[pos++] = (byte) (bits >>> count);
+			if(pos == buffer.length){
+				out.write(buffer, 0, pos);
+				pos = 0;
+			}
+		}
+	}
+
+	/**
+	 * align() method pads any partial byte with 0 bits (eg, 4 bits after an odd number of 12-bit codes).
+	 */
+	public void align() throws IOException {
+		if(count > 0){
+			write(0, 8 - count);
+		}
+	}
+
+	/**
+	 * drain() method writes every complete byte to the OutputStream and flushes it, keeping the bits of a partial byte
+	 * pending (see pending()), so output can be continued later exactly where it stops (see Checkpoint).
+	 */
+	public void drain() throws IOException {
+		out.write(buffer, 0, pos);
+		pos = 0;
+		out.flush();
+	}
+
+	/**
+	 * pending() method returns the bits after the last complete byte, lowest pendingCount() bits are valid.
+	 */
+	public int pending(){
+		return (int) (bits & ((1 << count) - 1));
+	}
+
+	/**
+	 * pendingCount() method returns the number of bits after the last complete byte, 0 - 7.
+	 */
+	public int pendingCount(){
+		return count;
+	}
+
+	/**
+	 * restore() method continues output after the bits of a partial byte returned by pending() and pendingCount().
+	 * Must be called before the first write().
+	 */
+	public void restore(int pending, int count){
+		bits = pending;
+		this.count = count;
+	}
+
+	/**
+	 * flush() method pads any partial byte and writes all buffered bytes to the OutputStream.
+	 */
+	public void flush() throws IOException {
+		align();
+		out.write(buffer, 0, pos);
+		pos = 0;
+		out.flush();
+	}
+
+	/**
+	 * close() method flushes and closes the OutputStream.
+	 */
+	public void close() throws IOException {
+		try{
+			flush();
+		} finally{
+			out.close();
+		}
+	}
+}
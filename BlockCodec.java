@@ -0,0 +1,656 @@
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32C;
+
+/**
+ * BlockCodec class compresses and decompresses the block container of LZWCompression (see setBlockSize()).  Every
+ * block starts with a fresh table, so blocks are independent and can be compressed or decompressed on a ForkJoinPool,
+ * one block per task.  Blocks are always written in input order, so output is identical for any number of threads.
+ * At most two blocks per thread are in flight, which bounds memory.
+ *
+ * The container is self-describing:
+ * Header: "LC", version (1 byte), maxwidth | reset policy << 5 | FLAG_DICTIONARY (1 byte), block size (4 bytes),
+ * dictionary id (4 bytes, 0 if none)
+ * BLOCK_LZW: type (1 byte), original length (4 bytes), codeword bytes (4 bytes), CRC32C of original (4 bytes),
+ * codewords
+ * BLOCK_STORED: type (1 byte), original length (4 bytes), original length again (4 bytes), CRC32C (4 bytes),
+ * original bytes
+ * BLOCK_END: type (1 byte), then the BlockIndex and its footer
+ *
+ * Blocks written before the container format ("LZ" header with FLAG_BLOCKED, no CRC32C or index) can still be read
+ * (see setContainer()).  Compression is pushed block by block (start(), buffer(), write(), finish()); decompression
+ * is pulled block by block (read()).  One BlockCodec is used per stream.
+ */
+public class BlockCodec implements Closeable {
+
+	/**
+	 * BlockCodec class constants
+	 * VERSION = container version written by start()
+	 * HEADER_SIZE = bytes in container header
+	 * FRAME_SIZE = bytes in block frame header
+	 * FLAG_DICTIONARY = header flag for blocks compressed with a trained SharedDictionary
+	 */
+	public static final int VERSION = 1;
+	public static final int HEADER_SIZE = 12;
+	public static final int FRAME_SIZE = 13;
+	public static final int FLAG_DICTIONARY = 0x80;
+
+	/**
+	 * BlockCodec class instance variables
+	 * DictionaryType type = dictionary implementation used for compression (and decompression tables, see
+	 * DictionaryType.createDecode())
+	 * int maxwidth = largest code width
+	 * ResetPolicy policy = when the table starts over within a block
+	 * int blocksize = input bytes per block
+	 * int threads = number of blocks compressed or decompressed at once (1 runs on the calling thread)
+	 * Map<Thread, Worker> workers = encoder, decoder and buffers of each thread that has handled a block of this codec,
+	 * held by the codec rather than the threads, so close() releases them and pooled threads do not keep them alive
+	 * ForkJoinPool pool = threads running block tasks, null when threads is 1
+	 * OutputStream out = destination of framed blocks during compression
+	 * ArrayDeque<Future<byte[]>> pending = block tasks in flight, oldest first
+	 * ArrayDeque<byte[]> inputs = input block of each compression task in flight
+	 * ArrayDeque<byte[]> free = input blocks ready for reuse
+	 * boolean end = no more framed blocks to read during decompression
+	 * SharedDictionary dictionary = trained entries every block starts with, null for none
+	 * boolean container = blocks are framed with CRC32C and followed by an index (false for blocks written before the
+	 * container format)
+	 * long position = file offset of the next block frame
+	 * BlockIndex index = blocks written or read so far
+	 * boolean skipcorrupt = blocks failing their CRC32C or decoding are skipped instead of failing the stream
+	 * int corrupt = number of blocks skipped
+	 * CompressionStats stats = receives counts of every block coded, null for none
+	 * boolean flexible = strings of each block are chosen by flexible parsing (see LZWEncoder)
+	 * boolean storeonly = every block is written as BLOCK_STORED without trying LZW codewords
+	 */
+	private DictionaryType type;
+	private int maxwidth;
+	private ResetPolicy policy;
+	private int blocksize;
+	private int threads;
+	private Map<Thread, Worker> workers = new ConcurrentHashMap<Thread, Worker>();
+	private ForkJoinPool pool;
+	private OutputStream out;
+	private ArrayDeque<Future<byte[]>> pending = new ArrayDeque<Future<byte[]>>();
+	private ArrayDeque<byte[]> inputs = new ArrayDeque<byte[]>();
+	private ArrayDeque<byte[]> free = new ArrayDeque<byte[]>();
+	private boolean end;
+	private SharedDictionary dictionary;
+	private boolean container = true;
+	private long position;
+	private BlockIndex index = new BlockIndex();
+	private boolean skipcorrupt;
+	private int corrupt;
+	private CompressionStats stats;
+	private boolean flexible;
+	private boolean storeonly;
+
+	/**
+	 * BlockCodec() constructor.
+	 * DictionaryType type: dictionary implementation used for compression.
+	 * Int maxwidth: largest code width.
+	 * ResetPolicy policy: when the table starts over within a block.
+	 * Int blocksize: input bytes per block.
+	 * Int threads: number of blocks compressed or decompressed at once.
+	 */
+	public BlockCodec(DictionaryType type, int maxwidth, ResetPolicy policy, int blocksize, int threads){
+		this.type = type;
+		this.maxwidth = maxwidth;
+		this.policy = policy;
+		this.blocksize = blocksize;
+		this.threads = Math.max(1, threads);
+	}
+
+	/**
+	 * open() method reads the rest of a container header (after "LC") and returns a BlockCodec to read its blocks.
+	 * DataInputStream data: container, positioned after "LC".
+	 * Int threads: number of blocks decompressed at once.
+	 * SharedDictionary dictionary: trained entries the container was compressed with, null if none.
+	 * DictionaryType type: selects the decompression tables (see DictionaryType.createDecode()).
+	 */
+	public static BlockCodec open(DataInputStream data, int threads, SharedDictionary dictionary, DictionaryType type)
+			throws IOException {
+		int version;
+		int flags;
+		int blocksize;
+		int id;
+		try{
+			version = data.readUnsignedByte();
+			flags = data.readUnsignedByte();
+			blocksize = data.readInt();
+			id = data.readInt();
+		} catch(EOFException e){
+			throw new IOException("Truncated input: container header incomplete");
+		}
+		if(version != VERSION){
+			throw new IOException("Unsupported container version " + version);
+		}
+		if(blocksize <= 0){
+			throw new IOException("Invalid block size " + blocksize);
+		}
+		LZWInputStream.checkFlags(flags);
+		BlockCodec codec = new BlockCodec(type, flags & 0x1F, ResetPolicy.fromId((flags >>> 5) & 0x03),
+				blocksize, threads);
+		if((flags & FLAG_DICTIONARY) != 0){
+			codec.setDictionary(LZWInputStream.checkDictionary(id, dictionary));
+		}
+		codec.position = HEADER_SIZE;
+		return codec;
+	}
+
+	/**
+	 * setDictionary() method selects trained entries every block starts with (before the first block only).
+	 */
+	public void setDictionary(SharedDictionary dictionary){
+		this.dictionary = dictionary;
+	}
+
+	/**
+	 * setContainer() method selects how blocks are read: false for blocks written before the container format ("LZ"
+	 * header with FLAG_BLOCKED), which have no CRC32C or index.  Blocks are always written as a container.
+	 */
+	public void setContainer(boolean container){
+		this.container = container;
+	}
+
+	/**
+	 * setSkipCorrupt() method selects what happens to a block that fails its CRC32C or cannot be decoded: skipped
+	 * (true, see corruptBlocks()) or IOException (false, the default).  Truncated input always fails.
+	 */
+	public void setSkipCorrupt(boolean skipcorrupt){
+		this.skipcorrupt = skipcorrupt;
+	}
+
+	/**
+	 * setStats() method selects where the counts of each block are added (before the first block only).
+	 */
+	public void setStats(CompressionStats stats){
+		this.stats = stats;
+	}
+
+	/**
+	 * setFlexibleParsing() method selects flexible parsing for compression (before the first block only).
+	 */
+	public void setFlexibleParsing(boolean flexible){
+		this.flexible = flexible;
+	}
+
+	/**
+	 * setStoreOnly() method selects whether every block is stored raw without being compressed (before the first
+	 * block only), for input known not to compress (see ExpansionPolicy.STORE).
+	 */
+	public void setStoreOnly(boolean storeonly){
+		this.storeonly = storeonly;
+	}
+
+	/**
+	 * corruptBlocks() method returns the number of corrupt blocks skipped so far.
+	 */
+	public int corruptBlocks(){
+		return corrupt;
+	}
+
+	/**
+	 * index() method returns the blocks written or read so far.
+	 */
+	public BlockIndex index(){
+		return index;
+	}
+
+	/**
+	 * compress() method reads read in blocks and writes the container to out.
+	 */
+	public void compress(InputStream read, OutputStream out) throws IOException {
+		start(out);
+		try{
+			byte[] block = buffer();
+			int length;
+			while((length = read.readNBytes(block, 0, blocksize)) > 0){
+				write(block, length);
+				block = buffer();
+			}
+			finish();
+		} finally{
+			close();
+		}
+	}
+
+	/**
+	 * decompress() method reads framed blocks from read and writes the original bytes to out in order.
+	 */
+	public void decompress(InputStream read, OutputStream out) throws IOException {
+		DataInputStream data = new DataInputStream(read);
+		try{
+			byte[] block;
+			while((block = read(data)) != null){
+				out.write(block);
+			}
+			out.flush();
+		} finally{
+			close();
+		}
+	}
+
+	/**
+	 * start() method begins compression to out by writing the container header.
+	 */
+	public void start(OutputStream out) throws IOException {
+		this.out = out;
+		int id = dictionary == null ? 0 : dictionary.id();
+		DataOutputStream data = new DataOutputStream(out);
+		data.writeShort(LZWCompression.MAGIC_CONTAINER);
+		data.writeByte(VERSION);
+		data.writeByte(maxwidth | (policy.id() << 5) | (dictionary == null ? 0 : FLAG_DICTIONARY));
+		data.writeInt(blocksize);
+		data.writeInt(id);
+		position = HEADER_SIZE;
+	}
+
+	/**
+	 * buffer() method returns an empty input block of blocksize bytes, reusing blocks that have been written (except
+	 * shorter ones, see LZWOutputStream).
+	 */
+	public byte[] buffer(){
+		byte[] block = free.poll();
+		return block != null && block.length == blocksize ? block : new byte[blocksize];
+	}
+
+	/**
+	 * write() method compresses one input block.  The block must not be changed by the caller afterwards; it is
+	 * handed back through buffer() once written.
+	 * Byte[] block: input block from buffer().
+	 * Int length: number of input bytes in block.
+	 */
+	public void write(byte[] block, int length) throws IOException {
+		if(threads == 1){
+			emit(compressBlock(block, length));
+			free.add(block);
+			return;
+		}
+		if(pool == null){
+			pool = new ForkJoinPool(threads);
+		}
+		pending.add(pool.submit(() -> compressBlock(block, length)));
+		inputs.add(block);
+
+		//keep two blocks per thread in flight, write results as the oldest completes
+		while(pending.size() >= threads * 2 || (!pending.isEmpty() && pending.peek().isDone())){
+			emit(join(pending.poll()));
+			free.add(inputs.poll());
+		}
+	}
+
+	/**
+	 * finish() method writes all blocks still in flight, BLOCK_END and the block index, then flushes out.
+	 */
+	public void finish() throws IOException {
+		while(!pending.isEmpty()){
+			emit(join(pending.poll()));
+			free.add(inputs.poll());
+		}
+		out.write(LZWCompression.BLOCK_END);
+		position += 1;
+		position += index.write(out, position);
+		out.flush();
+	}
+
+	/**
+	 * read() method returns the original bytes of the next framed block.
+	 * DataInputStream data: source of framed blocks.
+	 * Post-Condition: returns next block, or null when no blocks remain.
+	 */
+	public byte[] read(DataInputStream data) throws IOException {
+		if(threads > 1 && pool == null){
+			pool = new ForkJoinPool(threads);
+		}
+		while(true){
+			//keep two blocks per thread in flight (one when decoding on the calling thread)
+			while(!end && pending.size() < (threads == 1 ? 1 : threads * 2)){
+				readFrame(data);
+			}
+			if(pending.isEmpty()){
+				return null;
+			}
+			try{
+				return join(pending.poll());
+			} catch(IOException e){
+				if(!skipcorrupt){
+					throw e;
+				}
+				corrupt += 1;
+			}
+		}
+	}
+
+	/**
+	 * close() method stops the threads of this codec and releases the tables of its workers (see
+	 * DictionaryType.OFFHEAP).  Blocks still being coded are allowed to finish first, so no table is released while in
+	 * use.
+	 */
+	public void close(){
+		if(pool != null){
+			pool.shutdownNow();
+			try{
+				pool.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+			} catch(InterruptedException e){
+				//tables may still be in use, leave them to the garbage collector
+				Thread.currentThread().interrupt();
+				workers.clear();
+			}
+			pool = null;
+		}
+		pending.clear();
+		inputs.clear();
+		for(Worker worker : workers.values()){
+			worker.close();
+		}
+		workers.clear();
+	}
+
+	/**
+	 * worker() method returns the Worker of the calling thread, created on its first block.
+	 */
+	private Worker worker(){
+		return workers.computeIfAbsent(Thread.currentThread(),
+				thread -> new Worker(type, maxwidth, policy, dictionary, stats, flexible));
+	}
+
+	/**
+	 * compressBlock() method compresses one block with a fresh table.
+	 * Post-Condition: returns framed block, LZW codewords or raw bytes, whichever is smaller.
+	 */
+	public byte[] compressBlock(byte[] block, int length) throws IOException {
+		Worker worker = worker();
+		if(worker.packed == null){
+			worker.packed = new ByteArrayOutputStream(length + FRAME_SIZE);
+		}
+		ByteArrayOutputStream packed = worker.packed;
+		packed.reset();
+		DataOutputStream data = new DataOutputStream(packed);
+		worker.crc.reset();
+		worker.crc.update(block, 0, length);
+		int crc = (int) worker.crc.getValue();
+		data.writeByte(LZWCompression.BLOCK_LZW);
+		data.writeInt(length);
+		data.writeInt(0);
+		data.writeInt(crc);
+		if(storeonly){
+			return stored(packed, data, block, length, crc);
+		}
+
+		BitWriter bits = new BitWriter(packed);
+		LZWEncoder encoder = worker.encoder();
+		encoder.start(bits);
+		encoder.encode(block, 0, length);
+		encoder.finish();
+		bits.flush();
+
+		int size = packed.size() - FRAME_SIZE;
+		if(size + 4 < length){
+			byte[] framed = packed.toByteArray();
+			framed[5] = (byte) (size >>> 24);
+			framed[6] = (byte) (size >>> 16);
+			framed[7] = (byte) (size >>> 8);
+			framed[8] = (byte) size;
+			return framed;
+		}
+		return stored(packed, data, block, length, crc);
+	}
+
+	/**
+	 * stored() method frames one block as BLOCK_STORED raw bytes, replacing anything already in packed.
+	 * Post-Condition: returns framed block.
+	 */
+	private static byte[] stored(ByteArrayOutputStream packed, DataOutputStream data, byte[] block, int length, int crc)
+			throws IOException {
+		packed.reset();
+		data.writeByte(LZWCompression.BLOCK_STORED);
+		data.writeInt(length);
+		data.writeInt(length);
+		data.writeInt(crc);
+		data.write(block, 0, length);
+		return packed.toByteArray();
+	}
+
+	/**
+	 * decompressBlock() method decodes the codewords of one BLOCK_LZW block.  Blocks written before the container
+	 * format have no block size to check length against (blocksize 0), so their output grows as it is decoded
+	 * instead of being allocated from length up front.
+	 * Post-Condition: returns the original length bytes of the block.
+	 */
+	public byte[] decompressBlock(byte[] block, int length) throws IOException {
+		byte[] output = new byte[blocksize > 0 ? length : Math.min(length, 1 << 16)];
+		LZWDecoder decoder = worker().decoder();
+		decoder.start(new BitReader(block, 0, block.length));
+		int decoded = 0;
+		int n;
+		while(decoded < length){
+			if(decoded == output.length){
+				output = Arrays.copyOf(output, (int) Math.min(length, 2L * output.length));
+			}
+			if((n = decoder.read(output, decoded, output.length - decoded)) <= 0){
+				break;
+			}
+			decoded += n;
+		}
+		if(decoded != length || decoder.read(new byte[1], 0, 1) >= 0){
+			throw new IOException("Block decoded to more or less than " + length + " bytes");
+		}
+		return output;
+	}
+
+	/**
+	 * readBlock() method reads, decodes and checks one block of a container file directly at its offset in the block
+	 * index, without reading the blocks before it.
+	 * FileChannel channel: container file.
+	 * BlockIndex index: block index of the file (see BlockIndex.read()).
+	 * Int block: block number.
+	 * Post-Condition: returns the original bytes of the block.
+	 */
+	public byte[] readBlock(FileChannel channel, BlockIndex index, int block) throws IOException {
+		if(index.length(block) > blocksize || index.stored(block) > index.length(block)){
+			throw new IOException("Block " + block + " of " + index.length(block) + " bytes, " + index.stored(block)
+					+ " stored, exceeds block size " + blocksize);
+		}
+		ByteBuffer frame = ByteBuffer.allocate(FRAME_SIZE + index.stored(block));
+		BlockIndex.readFully(channel, frame, index.offset(block));
+		int blocktype = frame.get() & 0xFF;
+		int length = frame.getInt();
+		int packed = frame.getInt();
+		int crc = frame.getInt();
+		if(length != index.length(block) || packed != index.stored(block)
+				|| (blocktype != LZWCompression.BLOCK_LZW && blocktype != LZWCompression.BLOCK_STORED)){
+			throw new IOException("Block " + block + " does not match block index");
+		}
+		byte[] data = new byte[packed];
+		frame.get(data);
+		return check(blocktype == LZWCompression.BLOCK_STORED ? data : decompressBlock(data, length), crc, block);
+	}
+
+	/**
+	 * emit() method writes one framed block and records it in the index.
+	 */
+	private void emit(byte[] framed) throws IOException {
+		out.write(framed);
+		int length = ((framed[1] & 0xFF) << 24) | ((framed[2] & 0xFF) << 16) | ((framed[3] & 0xFF) << 8)
+				| (framed[4] & 0xFF);
+		index.add(position, length, framed.length - FRAME_SIZE);
+		position += framed.length;
+	}
+
+	/**
+	 * readFrame() method reads the next framed block and queues its original bytes: stored blocks as they are, LZW
+	 * blocks as a decode task (run at once when threads is 1).  At BLOCK_END the stored index is read and checked
+	 * against the blocks read.
+	 * Post-Condition: returns false when no blocks remain.
+	 */
+	private boolean readFrame(DataInputStream data) throws IOException {
+		int blocktype = data.read();
+		if(blocktype < 0){
+			if(container){
+				throw new IOException("Truncated input: no BLOCK_END after block " + index.count());
+			}
+			end = true;
+			return false;
+		}
+		if(container && blocktype == LZWCompression.BLOCK_END){
+			BlockIndex stored = BlockIndex.read(data, index.count(), position + 1);
+			if(!stored.matches(index)){
+				throw new IOException("Block index does not match blocks read");
+			}
+			end = true;
+			return false;
+		}
+
+		int length;
+		int packed;
+		int crc = 0;
+		byte[] block;
+		try{
+			length = data.readInt();
+			packed = blocktype == LZWCompression.BLOCK_LZW || container ? data.readInt() : length;
+			if(container){
+				crc = data.readInt();
+			}
+			if(length < 0 || packed < 0
+					|| (blocktype == LZWCompression.BLOCK_STORED && packed != length)
+					|| (blocktype != LZWCompression.BLOCK_LZW && blocktype != LZWCompression.BLOCK_STORED)){
+				throw new IOException("Invalid block type " + blocktype + " or length " + length + " at block "
+						+ index.count());
+			}
+
+			//blocks are stored raw unless LZW codewords are smaller, so neither length may exceed the block size;
+			//without a block size (blocks written before the container format) only bytes actually read are held
+			if(blocksize > 0 && (length > blocksize || packed > length)){
+				throw new IOException("Block " + index.count() + " of " + length + " bytes, " + packed
+						+ " stored, exceeds block size " + blocksize);
+			}
+			if(blocksize > 0){
+				block = new byte[packed];
+				data.readFully(block);
+			} else if((block = data.readNBytes(packed)).length < packed){
+				throw new EOFException();
+			}
+		} catch(EOFException e){
+			throw new IOException("Truncated input: block " + index.count() + " incomplete");
+		}
+		int number = index.count();
+		index.add(position, length, packed);
+		position += (container ? FRAME_SIZE : blocktype == LZWCompression.BLOCK_LZW ? 9 : 5) + packed;
+
+		int expected = crc;
+		Callable<byte[]> task = blocktype == LZWCompression.BLOCK_STORED
+				? () -> check(block, expected, number)
+				: () -> check(decompressBlock(block, length), expected, number);
+		if(pool == null || blocktype == LZWCompression.BLOCK_STORED){
+			try{
+				pending.add(CompletableFuture.completedFuture(task.call()));
+			} catch(Exception e){
+				pending.add(CompletableFuture.failedFuture(e));
+			}
+		} else {
+			pending.add(pool.submit(task));
+		}
+		return true;
+	}
+
+	/**
+	 * check() method compares the CRC32C of a decoded block with the one in its frame (container only).
+	 * Post-Condition: returns block, throws IOException on mismatch.
+	 */
+	private byte[] check(byte[] block, int crc, int number) throws IOException {
+		if(container){
+			CRC32C actual = worker().crc;
+			actual.reset();
+			actual.update(block, 0, block.length);
+			if((int) actual.getValue() != crc){
+				throw new IOException("Block " + number + " CRC32C mismatch");
+			}
+		}
+		return block;
+	}
+
+	/**
+	 * join() method waits for a block task and rethrows its IOException.
+	 */
+	private static byte[] join(Future<byte[]> task) throws IOException {
+		try{
+			return task.get();
+		} catch(InterruptedException e){
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted waiting for block");
+		} catch(ExecutionException e){
+			if(e.getCause() instanceof IOException){
+				throw (IOException) e.getCause();
+			}
+			throw new IOException("Block task failed", e.getCause());
+		}
+	}
+
+	/**
+	 * Worker class holds the encoder, decoder and buffers one thread reuses for every block it handles, with the
+	 * settings of its codec, so it keeps no reference to the codec itself.
+	 */
+	private static class Worker {
+		private DictionaryType type;
+		private int maxwidth;
+		private ResetPolicy policy;
+		private SharedDictionary dictionary;
+		private CompressionStats stats;
+		private boolean flexible;
+		private LZWEncoder encoder;
+		private LZWDecoder decoder;
+		private ByteArrayOutputStream packed;
+		private CRC32C crc = new CRC32C();
+
+		private Worker(DictionaryType type, int maxwidth, ResetPolicy policy, SharedDictionary dictionary,
+				CompressionStats stats, boolean flexible){
+			this.type = type;
+			this.maxwidth = maxwidth;
+			this.policy = policy;
+			this.dictionary = dictionary;
+			this.stats = stats;
+			this.flexible = flexible;
+		}
+
+		private LZWEncoder encoder(){
+			if(encoder == null){
+				encoder = new LZWEncoder(type.create(1 << maxwidth), maxwidth, true, policy);
+				encoder.setDictionary(dictionary);
+				encoder.setStats(stats);
+				encoder.setFlexibleParsing(flexible);
+			}
+			return encoder;
+		}
+
+		private LZWDecoder decoder(){
+			if(decoder == null){
+				decoder = new LZWDecoder(type.createDecode(1 << maxwidth), maxwidth, true, policy);
+				decoder.setDictionary(dictionary);
+				decoder.setStats(stats);
+			}
+			return decoder;
+		}
+
+		private void close(){
+			if(encoder != null){
+				encoder.close();
+				encoder = null;
+			}
+			if(decoder != null){
+				decoder.close();
+				decoder = null;
+			}
+		}
+	}
+}
@@ -0,0 +1,252 @@
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.zip.CRC32C;
+
+/**
+ * BlockIndex class lists the blocks of a container (see BlockCodec): file offset, original length and stored length of
+ * each block.  It is written after the last block, followed by a fixed-size footer, so readers can find it from the
+ * end of the file, pre-size output buffers from the total length, detect truncated files, and find the blocks
+ * covering any range of original bytes without decoding the blocks before it.
+ *
+ * Index entry: offset (8 bytes), original length (4 bytes), stored length (4 bytes)
+ * Footer: block count (4 bytes), total original length (8 bytes), index offset (8 bytes), CRC32C of index entries
+ * (4 bytes), INDEX_MAGIC (4 bytes)
+ */
+public class BlockIndex {
+
+	/**
+	 * BlockIndex class constants
+	 * INDEX_MAGIC = last four bytes of a container ("LZIX")
+	 * ENTRY_SIZE = bytes per index entry
+	 * FOOTER_SIZE = bytes in footer
+	 */
+	public static final int INDEX_MAGIC = 0x4C5A4958;
+	public static final int ENTRY_SIZE = 16;
+	public static final int FOOTER_SIZE = 28;
+
+	/**
+	 * BlockIndex class instance variables
+	 * long[] offsets = file offset of each block frame
+	 * long[] starts = offset in original data of the first byte of each block
+	 * int[] lengths = original length of each block
+	 * int[] stored = bytes stored after each block frame header (codewords or raw bytes)
+	 * int count = number of blocks
+	 * long total = sum of original lengths
+	 */
+	private long[] offsets = new long[16];
+	private long[] starts = new long[16];
+	private int[] lengths = new int[16];
+	private int[] stored = new int[16];
+	private int count;
+	private long total;
+
+	/**
+	 * add() method appends the next block.
+	 */
+	public void add(long offset, int length, int storedlength){
+		if(count == offsets.length){
+			offsets = Arrays.copyOf(offsets, count * 2);
+			starts = Arrays.copyOf(starts, count * 2);
+			lengths = Arrays.copyOf(lengths, count * 2);
+			stored = Arrays.copyOf(stored, count * 2);
+		}
+		offsets[count] = offset;
+		starts[count] = total;
+		lengths[count] = length;
+		stored[count] = storedlength;
+		count += 1;
+		total += length;
+	}
+
+	/**
+	 * count() method returns number of blocks.
+	 */
+	public int count(){
+		return count;
+	}
+
+	/**
+	 * total() method returns total original length of all blocks.
+	 */
+	public long total(){
+		return total;
+	}
+
+	/**
+	 * offset() method returns file offset of the frame of block.
+	 */
+	public long offset(int block){
+		return offsets[block];
+	}
+
+	/**
+	 * start() method returns offset in original data of the first byte of block.
+	 */
+	public long start(int block){
+		return starts[block];
+	}
+
+	/**
+	 * block() method returns the block holding the byte at offset in original data.
+	 * Post-Condition: returns block number, or count() if offset is at or beyond total().
+	 */
+	public int block(long offset){
+		if(offset >= total){
+			return count;
+		}
+		int low = 0;
+		int high = count - 1;
+		while(low < high){
+			int mid = (low + high + 1) >>> 1;
+			if(starts[mid] <= offset){
+				low = mid;
+			} else {
+				high = mid - 1;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * length() method returns original length of block.
+	 */
+	public int length(int block){
+		return lengths[block];
+	}
+
+	/**
+	 * stored() method returns bytes stored after the frame header of block.
+	 */
+	public int stored(int block){
+		return stored[block];
+	}
+
+	/**
+	 * write() method writes all entries and the footer.
+	 * Long position: file offset the first entry is written at.
+	 * Post-Condition: returns number of bytes written.
+	 */
+	public int write(OutputStream out, long position) throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocate(count * ENTRY_SIZE + FOOTER_SIZE);
+		for(int i = 0; i < count; i++){
+			buffer.putLong(offsets[i]).putInt(lengths[i]).putInt(stored[i]);
+		}
+		CRC32C crc = new CRC32C();
+		crc.update(buffer.array(), 0, buffer.position());
+		buffer.putInt(count).putLong(total).putLong(position).putInt((int) crc.getValue()).putInt(INDEX_MAGIC);
+		out.write(buffer.array(), 0, buffer.position());
+		return buffer.position();
+	}
+
+	/**
+	 * read() method reads count entries and the footer, as written by write().
+	 * Int count: number of blocks read before the index.
+	 * Long position: file offset of the first entry.
+	 * Post-Condition: returns index, throws IOException if truncated, corrupt or count does not match.
+	 */
+	public static BlockIndex read(DataInputStream in, int count, long position) throws IOException {
+		byte[] bytes = new byte[count * ENTRY_SIZE + FOOTER_SIZE];
+		try{
+			in.readFully(bytes);
+		} catch(EOFException e){
+			throw new IOException("Truncated input: block index incomplete");
+		}
+		return parse(ByteBuffer.wrap(bytes), position);
+	}
+
+	/**
+	 * read() method reads the index from the end of a container file, without reading any block.
+	 * Post-Condition: returns index, throws IOException if the footer is missing or the index is corrupt.
+	 */
+	public static BlockIndex read(FileChannel channel) throws IOException {
+		long size = channel.size();
+		if(size < FOOTER_SIZE){
+			throw new IOException("Truncated input: no block index");
+		}
+		ByteBuffer footer = ByteBuffer.allocate(FOOTER_SIZE);
+		readFully(channel, footer, size - FOOTER_SIZE);
+		long position = footer.getLong(12);
+		if(position < 0 || position > size - FOOTER_SIZE || size - position > Integer.MAX_VALUE){
+			throw new IOException("Invalid block index offset " + position);
+		}
+		ByteBuffer buffer = ByteBuffer.allocate((int) (size - position));
+		readFully(channel, buffer, position);
+		return parse(buffer, position);
+	}
+
+	/**
+	 * readFully() method fills buffer from channel starting at file offset position.
+	 */
+	public static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+		buffer.clear();
+		while(buffer.hasRemaining()){
+			if(channel.read(buffer, position + buffer.position()) < 0){
+				throw new IOException("Truncated input at offset " + (position + buffer.position()));
+			}
+		}
+		buffer.flip();
+	}
+
+	/**
+	 * parse() method reads an index from the end of a container held in memory.
+	 * ByteBuffer container: whole container, position 0 = first header byte.
+	 * Post-Condition: returns index, throws IOException if the footer is missing or the index is corrupt.
+	 */
+	public static BlockIndex parse(ByteBuffer container) throws IOException {
+		if(container.limit() < FOOTER_SIZE){
+			throw new IOException("Truncated input: no block index");
+		}
+		long position = container.getLong(container.limit() - 20);
+		if(position < 0 || position > container.limit() - FOOTER_SIZE){
+			throw new IOException("Invalid block index offset " + position);
+		}
+		ByteBuffer index = container.duplicate();
+		index.position((int) position);
+		return parse(index.slice(), position);
+	}
+
+	/**
+	 * parse() method reads entries and footer.
+	 * ByteBuffer buffer: entries then footer, ending at limit.
+	 * Long position: file offset of the first entry.
+	 */
+	private static BlockIndex parse(ByteBuffer buffer, long position) throws IOException {
+		int end = buffer.limit() - FOOTER_SIZE;
+		if(end < 0 || buffer.getInt(buffer.limit() - 4) != INDEX_MAGIC){
+			throw new IOException("Truncated input: no block index");
+		}
+		int count = buffer.getInt(end);
+		long total = buffer.getLong(end + 4);
+		if(count < 0 || (long) count * ENTRY_SIZE != end || buffer.getLong(end + 12) != position){
+			throw new IOException("Invalid block index footer");
+		}
+		CRC32C crc = new CRC32C();
+		ByteBuffer entries = buffer.duplicate();
+		entries.position(0).limit(end);
+		crc.update(entries);
+		if((int) crc.getValue() != buffer.getInt(end + 20)){
+			throw new IOException("Block index CRC32C mismatch");
+		}
+		BlockIndex index = new BlockIndex();
+		for(int i = 0; i < count; i++){
+			index.add(buffer.getLong(i * ENTRY_SIZE), buffer.getInt(i * ENTRY_SIZE + 8),
+					buffer.getInt(i * ENTRY_SIZE + 12));
+		}
+		if(index.total != total){
+			throw new IOException("Block index total length " + total + " does not match entries");
+		}
+		return index;
+	}
+
+	/**
+	 * matches() method compares the blocks of two indexes.
+	 */
+	public boolean matches(BlockIndex other){
+		return count == other.count && total == other.total
+				&& Arrays.equals(offsets, 0, count, other.offsets, 0, count)
+				&& Arrays.equals(lengths, 0, count, other.lengths, 0, count)
+				&& Arrays.equals(stored, 0, count, other.stored, 0, count);
+	}
+}
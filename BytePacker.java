@@ -0,0 +1,76 @@
+/**
+ * BytePacker class is the bulk kernel of Compressor and Decompressor: it widens 8-bit values to 12-bit values packed
+ * two per 3 bytes, and back, over whole byte[] chunks.  Each pair of values maps to a fixed 3-byte group with no state
+ * carried between groups, so the loops are plain counted loops over arrays that the JIT unrolls, with no per-value
+ * method calls or bit buffer.  Output is the same as writing every byte through BitWriter.write(b, 12) and padding
+ * the last value, or reading it back through BitReader.read(12).
+ */
+public class BytePacker {
+
+	/**
+	 * packedLength() method returns number of bytes pack() writes for len input bytes.
+	 */
+	public static int packedLength(int len){
+		return len / 2 * 3 + (len & 1) * 2;
+	}
+
+	/**
+	 * unpackedLength() method returns number of bytes unpack() writes for len packed bytes.
+	 */
+	public static int unpackedLength(int len){
+		return len / 3 * 2 + (len % 3 == 2 ? 1 : 0);
+	}
+
+	/**
+	 * pack() method writes each input byte as a 12-bit value, two values per 3 bytes: 0000aaaa aaaa0000 bbbbbbbb.
+	 * An odd last byte is written as 2 bytes, its 12 bits followed by 4 bits of padding.
+	 * Byte[] src: input bytes.
+	 * Int off: first input byte in src.
+	 * Int len: number of input bytes, even unless this is the end of input.
+	 * Byte[] dst: destination with at least packedLength(len) bytes from doff.
+	 * Int doff: first packed byte in dst.
+	 * Post-Condition: returns number of packed bytes written.
+	 */
+	public static int pack(byte[] src, int off, int len, byte[] dst, int doff){
+		int end = off + (len & ~1);
+		int d = doff;
+		for(int i = off; i < end; i += 2){
+			int a = src[i] & 0xFF;
+			dst[d] = (byte) (a >>> 4);
+			dst[d + 1] = (byte) (a << 4);
+			dst[d + 2] = src[i + 1];
+			d += 3;
+		}
+		if((len & 1) != 0){
+			int a = src[end] & 0xFF;
+			dst[d] = (byte) (a >>> 4);
+			dst[d + 1] = (byte) (a << 4);
+			d += 2;
+		}
+		return d - doff;
+	}
+
+	/**
+	 * unpack() method returns each 12-bit value to its low 8 bits, two values per 3 bytes.  2 trailing bytes hold one
+	 * more value (and 4 bits of padding); a single trailing byte holds fewer than 12 bits and is ignored.
+	 * Byte[] src: packed bytes.
+	 * Int off: first packed byte in src.
+	 * Int len: number of packed bytes, a multiple of 3 unless this is the end of input.
+	 * Byte[] dst: destination with at least unpackedLength(len) bytes from doff.
+	 * Int doff: first output byte in dst.
+	 * Post-Condition: returns number of bytes written.
+	 */
+	public static int unpack(byte[] src, int off, int len, byte[] dst, int doff){
+		int end = off + len / 3 * 3;
+		int d = doff;
+		for(int i = off; i < end; i += 3){
+			dst[d] = (byte) ((src[i] << 4) | ((src[i + 1] & 0xFF) >>> 4));
+			dst[d + 1] = src[i + 2];
+			d += 2;
+		}
+		if(len % 3 == 2){
+			dst[d++] = (byte) ((src[end] << 4) | ((src[end + 1] & 0xFF) >>> 4));
+		}
+		return d - doff;
+	}
+}
@@ -0,0 +1,87 @@
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+
+/**
+ * ChannelOutputStream class writes a file through a FileChannel from a 1MB direct ByteBuffer, so compressed and
+ * decompressed output leaves the JVM in large writes without an extra heap copy.  Output is not memory-mapped: the
+ * final length is unknown until the codec finishes, and a mapped file cannot be truncated on every platform.
+ */
+public class ChannelOutputStream extends OutputStream {
+
+	/**
+	 * ChannelOutputStream class instance variables
+	 * FileChannel channel = open file
+	 * ByteBuffer buffer = bytes not yet written to channel
+	 */
+	private FileChannel channel;
+	private ByteBuffer buffer = ByteBuffer.allocateDirect(MappedInputStream.DIRECT);
+
+	/**
+	 * ChannelOutputStream() constructor.
+	 * String file: file to create or replace.
+	 */
+	public ChannelOutputStream(String file) throws IOException {
+		channel = FileChannel.open(Paths.get(file), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING);
+	}
+
+	/**
+	 * ChannelOutputStream() constructor.
+	 * String file: file to create, or to continue after its first keep bytes (anything after them is discarded).
+	 * Long keep: bytes of an existing file to keep, eg, the output offset of a Checkpoint.
+	 * Post-Condition: throws IOException, leaving file as it was, if it is shorter than keep.
+	 */
+	public ChannelOutputStream(String file, long keep) throws IOException {
+		channel = FileChannel.open(Paths.get(file), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+		if(channel.size() < keep){
+			channel.close();
+			throw new IOException("Output " + file + " is shorter than the " + keep + " bytes to keep");
+		}
+		channel.truncate(keep);
+		channel.position(keep);
+	}
+
+	public void write(int b) throws IOException {
+		if(!buffer.hasRemaining()){
+			drain();
+		}
+		buffer.put((byte) b);
+	}
+
+	public void write(byte[] b, int off, int len) throws IOException {
+		while(len > 0){
+			if(!buffer.hasRemaining()){
+				drain();
+			}
+			int n = Math.min(len, buffer.remaining());
+			buffer.put(b, off, n);
+			off += n;
+			len -= n;
+		}
+	}
+
+	public void flush() throws IOException {
+		drain();
+	}
+
+	public void close() throws IOException {
+		try{
+			drain();
+		} finally{
+			channel.close();
+		}
+	}
+
+	/**
+	 * drain() method writes all buffered bytes to the channel.
+	 */
+	private void drain() throws IOException {
+		buffer.flip();
+		while(buffer.hasRemaining()){
+			channel.write(buffer);
+		}
+		buffer.clear();
+	}
+}
@@ -0,0 +1,258 @@
+import java.io.*;
+import java.nio.file.*;
+
+/**
+ * Checkpoint class holds everything needed to resume a single stream of codewords part way through: where the next
+ * phrase starts in the input, how many output bytes are complete, the codeword bits not yet filling a byte, and the
+ * table state.  Checkpoints are only taken right after the table starts over (ON_FULL overflow or ADAPTIVE CLEAR), when
+ * the table holds nothing but its preset entries and at most the one entry made with the first byte of the next
+ * phrase (carry), so no table contents need saving.  Resuming from a checkpoint writes the same bytes an uninterrupted
+ * run would have written (see LZWEncoder.resume()).
+ *
+ * A checkpoint also records the input length, a CRC32C of the input before input() (see InputFingerprint) and the
+ * settings that shape the output, so it is only used to resume the same input with the same settings (see matches()
+ * and fingerprint()).  save() replaces the file atomically, so an interrupted run
+ * always leaves either the previous checkpoint or the new one.
+ */
+public class Checkpoint {
+
+	/**
+	 * Checkpoint class constants
+	 * MAGIC = first two bytes of a checkpoint file ("LK")
+	 * VERSION = checkpoint file format version
+	 */
+	public static final int MAGIC = 0x4C4B;
+	public static final int VERSION = 2;
+
+	/**
+	 * Checkpoint class instance variables
+	 * long length = input length in bytes
+	 * int fingerprint = CRC32C of the input before input
+	 * int flags = settings shaping the output (see flags())
+	 * int dictionary = id of the trained dictionary, 0 for none
+	 * long input = input offset of the first byte of the next phrase
+	 * long output = output bytes complete (header and whole bytes of codewords)
+	 * int pending = codeword bits written after the last complete output byte, lowest count bits are valid
+	 * int count = number of pending bits, 0 - 7
+	 * int index = next code to enter into table
+	 * int carry = code entered into the table with the first byte of the next phrase (code index - 1), -1 if none
+	 * int first = first byte of the next phrase
+	 * long bitsout = codeword bits written since the start of the stream
+	 * long phrases = codewords written for strings of input since the start of the stream
+	 * long clears = CLEAR codewords written since the start of the stream
+	 * long resets = table resets since the start of the stream
+	 */
+	private long length;
+	private int fingerprint;
+	private int flags;
+	private int dictionary;
+	private long input;
+	private long output;
+	private int pending;
+	private int count;
+	private int index;
+	private int carry;
+	private int first;
+	private long bitsout;
+	private long phrases;
+	private long clears;
+	private long resets;
+
+	/**
+	 * Checkpoint() constructor.
+	 * Long input: input offset of the first byte of the next phrase.
+	 * Long output: output bytes complete.
+	 * Int pending: codeword bits after the last complete output byte.
+	 * Int count: number of pending bits.
+	 * Int index: next code to enter into table.
+	 * Int carry: code entered with the first byte of the next phrase, -1 if none.
+	 * Int first: first byte of the next phrase.
+	 * Long bitsout: codeword bits written since the start of the stream.
+	 * Long phrases, clears, resets: counts since the start of the stream.
+	 */
+	public Checkpoint(long input, long output, int pending, int count, int index, int carry, int first,
+			long bitsout, long phrases, long clears, long resets){
+		this.input = input;
+		this.output = output;
+		this.pending = pending;
+		this.count = count;
+		this.index = index;
+		this.carry = carry;
+		this.first = first;
+		this.bitsout = bitsout;
+		this.phrases = phrases;
+		this.clears = clears;
+		this.resets = resets;
+	}
+
+	/**
+	 * flags() method returns the settings that shape the output as one value: maxwidth (bits 0 - 4), reset policy
+	 * (bits 5 - 6), variable-width codes (bit 7), flexible parsing (bit 8) and dictionary type (bits 9 - 11).
+	 */
+	public static int flags(int maxwidth, ResetPolicy policy, boolean variablewidth, boolean flexible,
+			DictionaryType type){
+		return maxwidth | (policy.id() << 5) | (variablewidth ? 0x80 : 0) | (flexible ? 0x100 : 0)
+				| (type.id() << 9);
+	}
+
+	/**
+	 * setSource() method records the input and settings this checkpoint may be resumed with.
+	 * Long length: input length in bytes.
+	 * Int fingerprint: CRC32C of the input before input().
+	 * Int flags: settings that shape the output (see flags()).
+	 * Int dictionary: id of the trained dictionary, 0 for none.
+	 */
+	public void setSource(long length, int fingerprint, int flags, int dictionary){
+		this.length = length;
+		this.fingerprint = fingerprint;
+		this.flags = flags;
+		this.dictionary = dictionary;
+	}
+
+	/**
+	 * matches() method returns whether this checkpoint was taken on input of the same length with the same settings.
+	 */
+	public boolean matches(long length, int flags, int dictionary){
+		return this.length == length && this.flags == flags && this.dictionary == dictionary;
+	}
+
+	/**
+	 * fingerprint() method returns the CRC32C of the input before input(), to compare with the input to resume.
+	 */
+	public int fingerprint(){
+		return fingerprint;
+	}
+
+	/**
+	 * input() method returns the input offset of the first byte of the next phrase, where input continues.
+	 */
+	public long input(){
+		return input;
+	}
+
+	/**
+	 * output() method returns the number of complete output bytes, where output continues.
+	 */
+	public long output(){
+		return output;
+	}
+
+	/**
+	 * pending() method returns the codeword bits after the last complete output byte, lowest count() bits are valid.
+	 */
+	public int pending(){
+		return pending;
+	}
+
+	/**
+	 * count() method returns the number of pending bits, 0 - 7.
+	 */
+	public int count(){
+		return count;
+	}
+
+	/**
+	 * index() method returns the next code to enter into the table.
+	 */
+	public int index(){
+		return index;
+	}
+
+	/**
+	 * carry() method returns the code entered into the fresh table with first(), or -1 if none (after a CLEAR).
+	 */
+	public int carry(){
+		return carry;
+	}
+
+	/**
+	 * first() method returns the first byte of the next phrase.
+	 */
+	public int first(){
+		return first;
+	}
+
+	/**
+	 * bitsout() method returns the codeword bits written since the start of the stream.
+	 */
+	public long bitsout(){
+		return bitsout;
+	}
+
+	/**
+	 * phrases() method returns the codewords written for strings of input since the start of the stream.
+	 */
+	public long phrases(){
+		return phrases;
+	}
+
+	/**
+	 * clears() method returns the CLEAR codewords written since the start of the stream.
+	 */
+	public long clears(){
+		return clears;
+	}
+
+	/**
+	 * resets() method returns the table resets since the start of the stream.
+	 */
+	public long resets(){
+		return resets;
+	}
+
+	/**
+	 * save() method writes this checkpoint to file, through a temporary file moved over it so the replacement is
+	 * atomic.
+	 */
+	public void save(Path file) throws IOException {
+		Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+		try(DataOutputStream data = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))){
+			data.writeShort(MAGIC);
+			data.writeByte(VERSION);
+			data.writeLong(length);
+			data.writeInt(fingerprint);
+			data.writeInt(flags);
+			data.writeInt(dictionary);
+			data.writeLong(input);
+			data.writeLong(output);
+			data.writeInt(pending);
+			data.writeByte(count);
+			data.writeInt(index);
+			data.writeInt(carry);
+			data.writeByte(first);
+			data.writeLong(bitsout);
+			data.writeLong(phrases);
+			data.writeLong(clears);
+			data.writeLong(resets);
+		}
+		Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	/**
+	 * load() method reads a checkpoint written by save().
+	 * Post-Condition: returns checkpoint, throws IOException if file is not a checkpoint.
+	 */
+	public static Checkpoint load(Path file) throws IOException {
+		try(DataInputStream data = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))){
+			if(data.readUnsignedShort() != MAGIC || data.readUnsignedByte() != VERSION){
+				throw new IOException("Not a checkpoint: " + file);
+			}
+			long length = data.readLong();
+			int fingerprint = data.readInt();
+			int flags = data.readInt();
+			int dictionary = data.readInt();
+			Checkpoint checkpoint = new Checkpoint(data.readLong(), data.readLong(), data.readInt(),
+					data.readUnsignedByte(), data.readInt(), data.readInt(), data.readUnsignedByte(), data.readLong(),
+					data.readLong(), data.readLong(), data.readLong());
+			checkpoint.setSource(length, fingerprint, flags, dictionary);
+			return checkpoint;
+		} catch(EOFException e){
+			throw new IOException("Truncated checkpoint: " + file);
+		}
+	}
+
+	public String toString(){
+		return "input offset " + input + ", output offset " + output + ", " + count + " pending bits, next code "
+				+ index;
+	}
+}
@@ -0,0 +1,16 @@
+import java.io.IOException;
+
+/**
+ * CheckpointListener interface receives the Checkpoints of a single stream of codewords (see
+ * LZWOutputStream.setCheckpoints()).  Called on the compressing thread right after a table reset, once every complete
+ * output byte has been flushed, so the output holds at least checkpoint.output() bytes.  LZWCompress saves each one to
+ * a file next to its output.
+ */
+public interface CheckpointListener {
+
+	/**
+	 * checkpoint() method is called at most once per checkpoint interval of input.
+	 * Checkpoint checkpoint: state to resume the stream from.
+	 */
+	void checkpoint(Checkpoint checkpoint) throws IOException;
+}
@@ -0,0 +1,207 @@
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.*;
+
+/**
+ * CompressionEstimate class predicts the compressed size and compression time of a file without compressing all of
+ * it.  Up to BUDGET bytes of the input, in 8 - 32 chunks taken one from each equal part of the file, are compressed
+ * with the real settings (dictionary type, code width, reset policy, blocks, trained dictionary and parsing), each
+ * starting from a fresh table, and the ratio and time per byte of the chunks are scaled to the whole file.  With
+ * blocks every chunk is one whole block at a block boundary, so stored fallback is predicted exactly as it will
+ * happen (blocks larger than BUDGET are cut to their first BUDGET bytes).  Files no longer than the chunks together,
+ * up to BUDGET bytes, are compressed whole, which makes the estimate exact (see exact()).  Text, logs and media come
+ * within a few percent; input whose compressibility changes every few chunks varies more.
+ *
+ * Used by LZWCompress and BatchCompression to store or skip inputs predicted to expand (see ExpansionPolicy), and by
+ * "java LZWCompression e input [options]" to print the estimate alone.
+ */
+public class CompressionEstimate {
+
+	/**
+	 * CompressionEstimate class constants
+	 * MIN_SAMPLES = fewest chunks compressed
+	 * MAX_SAMPLES = most chunks compressed
+	 * BUDGET = input bytes compressed when chunks are large enough that fewer than MAX_SAMPLES fit, also the longest
+	 * file compressed whole and the longest chunk
+	 * MIN_SAMPLE = smallest chunk of a single stream of codewords, enough to fill a 12-bit table several times
+	 * MAX_SAMPLE = largest chunk of a single stream of codewords
+	 */
+	public static final int MIN_SAMPLES = 8;
+	public static final int MAX_SAMPLES = 32;
+	public static final int BUDGET = 1 << 23;
+	public static final int MIN_SAMPLE = 1 << 16;
+	public static final int MAX_SAMPLE = 1 << 20;
+
+	/**
+	 * CompressionEstimate class instance variables
+	 * long size = input file length in bytes
+	 * long sampled = input bytes compressed for the estimate
+	 * long predicted = predicted compressed length in bytes
+	 * long nanos = predicted compression time in nanoseconds (codec only, not file reads and writes)
+	 * boolean exact = whole input was compressed, so predicted is the real compressed length
+	 */
+	private long size;
+	private long sampled;
+	private long predicted;
+	private long nanos;
+	private boolean exact;
+
+	/**
+	 * CompressionEstimate() constructor.
+	 * Long size: input file length in bytes.
+	 * Long sampled: input bytes compressed for the estimate.
+	 * Long predicted: predicted compressed length in bytes.
+	 * Long nanos: predicted compression time in nanoseconds.
+	 * Boolean exact: whole input was compressed.
+	 */
+	public CompressionEstimate(long size, long sampled, long predicted, long nanos, boolean exact){
+		this.size = size;
+		this.sampled = sampled;
+		this.predicted = predicted;
+		this.nanos = nanos;
+		this.exact = exact;
+	}
+
+	/**
+	 * sample() method estimates compression of a file by compressing chunks of length bytes each, starting at multiples
+	 * of length (see LZWCompression.estimate() for the chunk length of each setting).
+	 * LZWCompression settings: settings the file would be compressed with (only compressTo() is used, so the
+	 * instance may be shared between threads).
+	 * String input: file to estimate.
+	 * Int length: bytes per chunk, the block size when compressing in blocks.
+	 * Int threads: number of chunks that would be compressed in parallel (blocks only, 1 for a single stream).
+	 * Post-Condition: returns estimate, exact if the file is no longer than the chunks together and BUDGET.
+	 */
+	public static CompressionEstimate sample(LZWCompression settings, String input, int length, int threads)
+			throws IOException {
+		try(FileChannel channel = FileChannel.open(Paths.get(input), StandardOpenOption.READ)){
+			long size = channel.size();
+			int samples = Math.max(MIN_SAMPLES, Math.min(MAX_SAMPLES, BUDGET / length));
+			if(size <= Math.min((long) samples * length, BUDGET)){
+				ByteBuffer whole = ByteBuffer.allocate((int) size);
+				BlockIndex.readFully(channel, whole, 0);
+				long start = System.nanoTime();
+				long packed = packed(settings, whole.array(), (int) size);
+				return new CompressionEstimate(size, size, packed, System.nanoTime() - start, true);
+			}
+
+			//header, end of stream and empty block index are paid once, not per chunk
+			long overhead = packed(settings, new byte[0], 0);
+			int sample = Math.min(length, BUDGET);
+			ByteBuffer chunk = ByteBuffer.allocate(sample);
+
+			//chunks start at multiples of length, no more chunks than the file holds
+			long chunks = (size - sample) / length + 1;
+			samples = (int) Math.min(samples, chunks);
+			long packed = 0;
+			long[] nanos = new long[samples - samples / 2];
+			Random random = new Random(size);
+			for(int i = 0; i < samples; i++){
+				//one chunk from each of samples equal parts, at random so input laid out in a period is not aliased
+				long first = chunks * i / samples;
+				long next = chunks * (i + 1) / samples;
+				BlockIndex.readFully(channel, chunk, (first + (long) (random.nextDouble() * (next - first))) * length);
+				long start = System.nanoTime();
+				packed += packed(settings, chunk.array(), sample) - overhead;
+
+				//first chunks run before the encoder is compiled, so only the second half is timed
+				if(i >= samples / 2){
+					nanos[i - samples / 2] = System.nanoTime() - start;
+				}
+			}
+			long sampled = (long) samples * sample;
+			long predicted = overhead + Math.round((double) packed * size / sampled);
+			double parallel = Math.min(Math.min(threads, Runtime.getRuntime().availableProcessors()),
+					Math.ceil((double) size / length));
+
+			//median chunk, so a collection or compilation during one chunk does not count
+			Arrays.sort(nanos);
+			long time = Math.round((double) nanos[nanos.length / 2] / sample * size / parallel);
+			return new CompressionEstimate(size, sampled, predicted, time, false);
+		}
+	}
+
+	/**
+	 * size() method returns the input file length in bytes.
+	 */
+	public long size(){
+		return size;
+	}
+
+	/**
+	 * sampled() method returns the input bytes compressed for the estimate.
+	 */
+	public long sampled(){
+		return sampled;
+	}
+
+	/**
+	 * predictedSize() method returns the predicted compressed length in bytes.
+	 */
+	public long predictedSize(){
+		return predicted;
+	}
+
+	/**
+	 * ratio() method returns predicted compressed length over input length (above 1 for input that expands).
+	 */
+	public double ratio(){
+		return size == 0 ? 1 : (double) predicted / size;
+	}
+
+	/**
+	 * predictedSeconds() method returns the predicted time to compress the whole input, codec only.
+	 */
+	public double predictedSeconds(){
+		return nanos / 1e9;
+	}
+
+	/**
+	 * exact() method returns whether the whole input was compressed, so predictedSize() is exact.
+	 */
+	public boolean exact(){
+		return exact;
+	}
+
+	/**
+	 * expands() method returns whether the input is predicted to come out larger than it went in.
+	 */
+	public boolean expands(){
+		return predicted > size;
+	}
+
+	public String toString(){
+		return String.format("%d bytes, %s %d: predicted %d bytes (%.1f%%), %.3f s%s", size,
+				exact ? "compressed" : "sampled", sampled, predicted, 100 * ratio(), predictedSeconds(),
+				expands() ? ", expands" : "");
+	}
+
+	/**
+	 * packed() method compresses length bytes of data with settings.
+	 * Post-Condition: returns compressed length in bytes, the compressed bytes themselves are discarded.
+	 */
+	private static long packed(LZWCompression settings, byte[] data, int length) throws IOException {
+		Counter count = new Counter();
+		try(LZWOutputStream out = settings.compressTo(count)){
+			out.write(data, 0, length);
+		}
+		return count.bytes;
+	}
+
+	/**
+	 * Counter class counts bytes written to it and discards them.
+	 */
+	private static class Counter extends OutputStream {
+		private long bytes;
+
+		public void write(int b){
+			bytes++;
+		}
+
+		public void write(byte[] b, int off, int len){
+			bytes += len;
+		}
+	}
+}
@@ -0,0 +1,13 @@
+/**
+ * CompressionListener interface receives the CompressionStats of every LZWCompress and LZWDecompress run of an
+ * LZWCompression it is set on (see LZWCompression.setListener()).  Called on the thread that ran the compression,
+ * after the output file is closed.  CompressionMetrics is a listener keeping totals for JMX.
+ */
+public interface CompressionListener {
+
+	/**
+	 * completed() method is called once per successful run.
+	 * CompressionStats stats: counts and phase times of the run.
+	 */
+	void completed(CompressionStats stats);
+}
@@ -0,0 +1,136 @@
+import java.lang.management.ManagementFactory;
+import javax.management.*;
+
+/**
+ * CompressionMetrics class is a CompressionListener keeping totals over every run reported to it, exported through
+ * JMX as CompressionMetricsMBean (see register()).  Set it on each LZWCompression to be monitored; one instance can be
+ * shared by any number of them.
+ */
+public class CompressionMetrics implements CompressionListener, CompressionMetricsMBean {
+
+	/**
+	 * CompressionMetrics class constants
+	 * NAME = JMX object name used by register()
+	 */
+	public static final String NAME = "LZWCompression:type=CompressionMetrics";
+
+	/**
+	 * CompressionMetrics class instance variables
+	 * long runs = runs reported
+	 * long bytesin = bytes read from input files
+	 * long bytesout = bytes written to output files
+	 * long codes = codewords written or read
+	 * long resets = table resets
+	 * long original = uncompressed bytes coded
+	 * long phrases = phrase codewords (codes without CLEAR)
+	 * long lookups = table lookups during compression
+	 * long hits = lookups that found the extended string
+	 * long readnanos = time spent reading input files
+	 * long codecnanos = time spent coding
+	 * long writenanos = time spent writing output files
+	 * double lastratio = bytes out / bytes in of latest run
+	 */
+	private long runs;
+	private long bytesin;
+	private long bytesout;
+	private long codes;
+	private long resets;
+	private long original;
+	private long phrases;
+	private long lookups;
+	private long hits;
+	private long readnanos;
+	private long codecnanos;
+	private long writenanos;
+	private double lastratio;
+
+	/**
+	 * register() method creates a CompressionMetrics and registers it with the platform MBeanServer under NAME.
+	 * Post-Condition: returns registered metrics, throws IllegalStateException if NAME is already registered.
+	 */
+	public static CompressionMetrics register(){
+		CompressionMetrics metrics = new CompressionMetrics();
+		try{
+			ManagementFactory.getPlatformMBeanServer().registerMBean(metrics, new ObjectName(NAME));
+		} catch(JMException e){
+			throw new IllegalStateException("Cannot register " + NAME, e);
+		}
+		return metrics;
+	}
+
+	public synchronized void completed(CompressionStats stats){
+		runs++;
+		bytesin += stats.bytesIn();
+		bytesout += stats.bytesOut();
+		codes += stats.codes();
+		resets += stats.resets();
+		original += stats.original();
+		phrases += stats.phrases();
+		lookups += stats.lookups();
+		hits += stats.hits();
+		readnanos += stats.readNanos();
+		codecnanos += stats.codecNanos();
+		writenanos += stats.writeNanos();
+		lastratio = stats.ratio();
+	}
+
+	public synchronized long getRuns(){
+		return runs;
+	}
+
+	public synchronized long getBytesIn(){
+		return bytesin;
+	}
+
+	public synchronized long getBytesOut(){
+		return bytesout;
+	}
+
+	public synchronized long getCodes(){
+		return codes;
+	}
+
+	public synchronized long getResets(){
+		return resets;
+	}
+
+	public synchronized double getAverageMatchLength(){
+		return phrases == 0 ? 0 : (double) original / phrases;
+	}
+
+	public synchronized double getLookupHitRate(){
+		return lookups == 0 ? 0 : (double) hits / lookups;
+	}
+
+	public synchronized long getReadMillis(){
+		return readnanos / 1000000;
+	}
+
+	public synchronized long getCodecMillis(){
+		return codecnanos / 1000000;
+	}
+
+	public synchronized long getWriteMillis(){
+		return writenanos / 1000000;
+	}
+
+	public synchronized double getLastRatio(){
+		return lastratio;
+	}
+
+	public synchronized void reset(){
+		runs = 0;
+		bytesin = 0;
+		bytesout = 0;
+		codes = 0;
+		resets = 0;
+		original = 0;
+		phrases = 0;
+		lookups = 0;
+		hits = 0;
+		readnanos = 0;
+		codecnanos = 0;
+		writenanos = 0;
+		lastratio = 0;
+	}
+}
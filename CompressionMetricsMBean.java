@@ -0,0 +1,66 @@
+/**
+ * CompressionMetricsMBean interface is the JMX view of CompressionMetrics: totals over all runs reported to it, and the
+ * ratio of the latest run.  Times are in milliseconds.
+ */
+public interface CompressionMetricsMBean {
+
+	/**
+	 * getRuns() method returns number of runs reported.
+	 */
+	long getRuns();
+
+	/**
+	 * getBytesIn() method returns bytes read from input files.
+	 */
+	long getBytesIn();
+
+	/**
+	 * getBytesOut() method returns bytes written to output files.
+	 */
+	long getBytesOut();
+
+	/**
+	 * getCodes() method returns codewords written or read.
+	 */
+	long getCodes();
+
+	/**
+	 * getResets() method returns table resets within streams or blocks.
+	 */
+	long getResets();
+
+	/**
+	 * getAverageMatchLength() method returns uncompressed bytes per phrase codeword.
+	 */
+	double getAverageMatchLength();
+
+	/**
+	 * getLookupHitRate() method returns share of compression table lookups that extended the current string.
+	 */
+	double getLookupHitRate();
+
+	/**
+	 * getReadMillis() method returns time spent reading input files.
+	 */
+	long getReadMillis();
+
+	/**
+	 * getCodecMillis() method returns time spent compressing or decompressing.
+	 */
+	long getCodecMillis();
+
+	/**
+	 * getWriteMillis() method returns time spent writing output files.
+	 */
+	long getWriteMillis();
+
+	/**
+	 * getLastRatio() method returns bytes out / bytes in of the latest run.
+	 */
+	double getLastRatio();
+
+	/**
+	 * reset() method sets all totals back to 0.
+	 */
+	void reset();
+}
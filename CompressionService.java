@@ -0,0 +1,124 @@
+import java.io.*;
+import java.util.concurrent.*;
+import java.util.function.Supplier;
+
+/**
+ * CompressionService class compresses and decompresses many small in-memory payloads concurrently.  LZWCompression
+ * instances hold mutable tables and buffers, so each call borrows one from a pool and returns it afterwards; tables
+ * are reset in place instead of rebuilt, which removes the per-call cost of constructing LZWCompression.  Work
+ * submitted through submit() runs on a fixed pool of executor threads; compress() and decompress() run on the calling
+ * thread.  Can be used in try-with-resources; close() lets submitted work finish, then closes the idle codecs.
+ */
+public class CompressionService implements Closeable {
+
+	/**
+	 * CompressionService class instance variables
+	 * Supplier<LZWCompression> factory = creates a codec with the settings of this service
+	 * BlockingQueue<LZWCompression> idle = codecs not in use, at most one per executor thread plus callers
+	 * ExecutorService executor = threads running submitted work
+	 */
+	private Supplier<LZWCompression> factory;
+	private BlockingQueue<LZWCompression> idle;
+	private ExecutorService executor;
+
+	/**
+	 * CompressionService() constructor.
+	 * Uses the default LZWCompression settings and one thread per processor.
+	 */
+	public CompressionService(){
+		this(LZWCompression::new, Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * CompressionService() constructor.
+	 * Supplier<LZWCompression> factory: creates a codec (eg, () -> LZWCompression.withOptions(args, 0)); called only
+	 * when no idle codec is available.
+	 * Int threads: number of executor threads for submitted work.
+	 */
+	public CompressionService(Supplier<LZWCompression> factory, int threads){
+		if(threads < 1){
+			throw new IllegalArgumentException("Thread count must be at least 1: " + threads);
+		}
+		this.factory = factory;
+		idle = new ArrayBlockingQueue<LZWCompression>(threads * 2);
+		executor = Executors.newFixedThreadPool(threads, task -> {
+			Thread thread = new Thread(task, "lzw-service");
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	/**
+	 * submit() method compresses data on an executor thread.
+	 * Post-Condition: returns Future of compressed bytes.
+	 */
+	public Future<byte[]> submit(byte[] data){
+		return executor.submit(() -> compress(data));
+	}
+
+	/**
+	 * submitDecompress() method decompresses data on an executor thread.
+	 * Post-Condition: returns Future of original bytes.
+	 */
+	public Future<byte[]> submitDecompress(byte[] data){
+		return executor.submit(() -> decompress(data));
+	}
+
+	/**
+	 * compress() method compresses data on the calling thread with a pooled codec.
+	 */
+	public byte[] compress(byte[] data) throws IOException {
+		LZWCompression codec = borrow();
+		try{
+			return codec.compress(data, 0, data.length);
+		} finally{
+			release(codec);
+		}
+	}
+
+	/**
+	 * decompress() method decompresses data on the calling thread with a pooled codec.
+	 */
+	public byte[] decompress(byte[] data) throws IOException {
+		LZWCompression codec = borrow();
+		try{
+			return codec.decompress(data, 0, data.length);
+		} finally{
+			release(codec);
+		}
+	}
+
+	/**
+	 * close() method stops accepting work, waits for submitted work to finish and closes the idle codecs (releasing
+	 * OFFHEAP tables).  Codecs still borrowed by callers are closed as they are returned.
+	 */
+	public void close(){
+		executor.shutdown();
+		try{
+			executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+		} catch(InterruptedException e){
+			Thread.currentThread().interrupt();
+		}
+		LZWCompression codec;
+		while((codec = idle.poll()) != null){
+			codec.close();
+		}
+	}
+
+	/**
+	 * borrow() method returns an idle codec, or a new one if all are in use.
+	 */
+	private LZWCompression borrow(){
+		LZWCompression codec = idle.poll();
+		return codec != null ? codec : factory.get();
+	}
+
+	/**
+	 * release() method returns a borrowed codec to the pool, or closes it if the pool is full or the service closed.
+	 */
+	private void release(LZWCompression codec){
+		if(executor.isShutdown() || !idle.offer(codec)){
+			codec.close();
+		}
+	}
+}
@@ -0,0 +1,285 @@
+import java.io.*;
+
+/**
+ * CompressionStats class collects what happened during one LZWCompress or LZWDecompress run: file bytes in and out,
+ * codewords, table resets, average match length, lookup hit rate and time spent reading, coding and writing.  Codecs
+ * keep plain counters and add them here once per stream or block (see LZWEncoder.setStats()), and file time is taken
+ * per buffer, so nothing extra is done per input byte.  Lookups of greedy parsing follow from the byte and codeword
+ * counts; flexible parsing looks up several times per byte, so LZWEncoder counts those as it makes them.  Without a
+ * CompressionListener no stats are created at all.  Counts of blocks coded in parallel are added under this object's
+ * lock.
+ */
+public class CompressionStats {
+
+	/**
+	 * CompressionStats class instance variables
+	 * boolean compression = run was a compression (false for decompression)
+	 * long bytesin = bytes read from input file
+	 * long bytesout = bytes written to output file
+	 * long original = uncompressed bytes coded (bytes encoded, or bytes decoded)
+	 * long phrases = codewords standing for a string of input
+	 * long clears = CLEAR codewords (ADAPTIVE reset policy only)
+	 * long resets = table resets within a stream or block (createTable() calls on overflow or CLEAR)
+	 * long lookups = table lookups during compression
+	 * long hits = lookups that found the extended string in the table
+	 * long readnanos = time spent waiting for input file bytes
+	 * long writenanos = time spent writing output file bytes
+	 * long elapsednanos = time of whole run
+	 */
+	private boolean compression;
+	private long bytesin;
+	private long bytesout;
+	private long original;
+	private long phrases;
+	private long clears;
+	private long resets;
+	private long lookups;
+	private long hits;
+	private long readnanos;
+	private long writenanos;
+	private long elapsednanos;
+
+	/**
+	 * CompressionStats() constructor.
+	 * Boolean compression: stats of a compression (true) or decompression (false).
+	 */
+	public CompressionStats(boolean compression){
+		this.compression = compression;
+	}
+
+	/**
+	 * encoded() method adds the counts of one stream or block compressed by an LZWEncoder.
+	 * Long bytes: input bytes encoded.
+	 * Long phrases: codewords written for strings of input.
+	 * Long clears: CLEAR codewords written.
+	 * Long resets: table resets.
+	 * Long lookups: table lookups.
+	 * Long hits: lookups that found the extended string in the table.
+	 */
+	public synchronized void encoded(long bytes, long phrases, long clears, long resets, long lookups, long hits){
+		add(bytes, phrases, clears, resets);
+		this.lookups += lookups;
+		this.hits += hits;
+	}
+
+	/**
+	 * decoded() method adds the counts of one stream or block decompressed by an LZWDecoder or FastDecoder.
+	 * Long bytes: bytes decoded.
+	 * Long phrases: codewords read for strings of output.
+	 * Long clears: CLEAR codewords read.
+	 * Long resets: table resets.
+	 */
+	public synchronized void decoded(long bytes, long phrases, long clears, long resets){
+		add(bytes, phrases, clears, resets);
+	}
+
+	/**
+	 * finish() method records time of whole run.
+	 */
+	public synchronized void finish(long elapsednanos){
+		this.elapsednanos = elapsednanos;
+	}
+
+	/**
+	 * reading() method returns in, counting bytes read and time spent reading.
+	 */
+	public InputStream reading(InputStream in){
+		return new FilterInputStream(in){
+			public int read() throws IOException {
+				long start = System.nanoTime();
+				int b = in.read();
+				addRead(b < 0 ? 0 : 1, System.nanoTime() - start);
+				return b;
+			}
+
+			public int read(byte[] b, int off, int len) throws IOException {
+				long start = System.nanoTime();
+				int n = in.read(b, off, len);
+				addRead(Math.max(n, 0), System.nanoTime() - start);
+				return n;
+			}
+		};
+	}
+
+	/**
+	 * writing() method returns out, counting bytes written and time spent writing (including flush and close).
+	 */
+	public OutputStream writing(OutputStream out){
+		return new FilterOutputStream(out){
+			public void write(int b) throws IOException {
+				long start = System.nanoTime();
+				out.write(b);
+				addWritten(1, System.nanoTime() - start);
+			}
+
+			public void write(byte[] b, int off, int len) throws IOException {
+				long start = System.nanoTime();
+				out.write(b, off, len);
+				addWritten(len, System.nanoTime() - start);
+			}
+
+			public void flush() throws IOException {
+				long start = System.nanoTime();
+				out.flush();
+				addWritten(0, System.nanoTime() - start);
+			}
+
+			public void close() throws IOException {
+				long start = System.nanoTime();
+				out.close();
+				addWritten(0, System.nanoTime() - start);
+			}
+		};
+	}
+
+	/**
+	 * isCompression() method returns true for stats of a compression, false for a decompression.
+	 */
+	public synchronized boolean isCompression(){
+		return compression;
+	}
+
+	/**
+	 * bytesIn() method returns bytes read from input file.
+	 */
+	public synchronized long bytesIn(){
+		return bytesin;
+	}
+
+	/**
+	 * bytesOut() method returns bytes written to output file.
+	 */
+	public synchronized long bytesOut(){
+		return bytesout;
+	}
+
+	/**
+	 * ratio() method returns bytes out / bytes in (below 1 when compression paid off), 0 for empty input.
+	 */
+	public synchronized double ratio(){
+		return bytesin == 0 ? 0 : (double) bytesout / bytesin;
+	}
+
+	/**
+	 * codes() method returns codewords written or read, including CLEAR codewords.
+	 */
+	public synchronized long codes(){
+		return phrases + clears;
+	}
+
+	/**
+	 * phrases() method returns codewords standing for a string (codes without CLEAR).
+	 */
+	public synchronized long phrases(){
+		return phrases;
+	}
+
+	/**
+	 * original() method returns uncompressed bytes coded.
+	 */
+	public synchronized long original(){
+		return original;
+	}
+
+	/**
+	 * resets() method returns table resets within streams or blocks (createTable() calls on overflow or CLEAR).
+	 */
+	public synchronized long resets(){
+		return resets;
+	}
+
+	/**
+	 * averageMatchLength() method returns uncompressed bytes per phrase codeword.
+	 */
+	public synchronized double averageMatchLength(){
+		return phrases == 0 ? 0 : (double) original / phrases;
+	}
+
+	/**
+	 * hitRate() method returns the share of table lookups that extended the current string (compression only).
+	 */
+	public synchronized double hitRate(){
+		return lookups == 0 ? 0 : (double) hits / lookups;
+	}
+
+	/**
+	 * lookups() method returns table lookups during compression.
+	 */
+	public synchronized long lookups(){
+		return lookups;
+	}
+
+	/**
+	 * hits() method returns lookups that found the extended string in the table.
+	 */
+	public synchronized long hits(){
+		return hits;
+	}
+
+	/**
+	 * readNanos() method returns time spent waiting for input file bytes.
+	 */
+	public synchronized long readNanos(){
+		return readnanos;
+	}
+
+	/**
+	 * writeNanos() method returns time spent writing output file bytes.
+	 */
+	public synchronized long writeNanos(){
+		return writenanos;
+	}
+
+	/**
+	 * codecNanos() method returns time of whole run not spent reading or writing files.
+	 */
+	public synchronized long codecNanos(){
+		return Math.max(0, elapsednanos - readnanos - writenanos);
+	}
+
+	/**
+	 * elapsedNanos() method returns time of whole run.
+	 */
+	public synchronized long elapsedNanos(){
+		return elapsednanos;
+	}
+
+	/**
+	 * toString() method returns a one-line summary of the run.
+	 */
+	public synchronized String toString(){
+		String hitrate = compression ? String.format(", lookup hit rate %.1f%%", hitRate() * 100) : "";
+		return String.format("%s: %d bytes in, %d bytes out (ratio %.3f), %d codes, %d resets, average match %.2f bytes"
+				+ "%s, read %.3f s, codec %.3f s, write %.3f s", compression ? "Compressed" : "Decompressed", bytesin,
+				bytesout, ratio(), codes(), resets, averageMatchLength(), hitrate, readnanos / 1e9, codecNanos() / 1e9,
+				writenanos / 1e9);
+	}
+
+	/**
+	 * add() method adds counts of one stream or block.
+	 */
+	private void add(long bytes, long phrases, long clears, long resets){
+		original += bytes;
+		this.phrases += phrases;
+		this.clears += clears;
+		this.resets += resets;
+	}
+
+	/**
+	 * addRead() method adds bytes read from input file and time spent reading them (see reading(), or
+	 * AsyncCompression for reads that do not go through a stream).
+	 */
+	public synchronized void addRead(int bytes, long nanos){
+		bytesin += bytes;
+		readnanos += nanos;
+	}
+
+	/**
+	 * addWritten() method adds bytes written to output file and time spent writing them (see writing(), or
+	 * AsyncCompression for writes that do not go through a stream).
+	 */
+	public synchronized void addWritten(int bytes, long nanos){
+		bytesout += bytes;
+		writenanos += nanos;
+	}
+}
@@ -9,130 +9,56 @@ import java.util.Scanner;
  */
 public class Compressor {
 
+	/**
+	 * Compressor class constants
+	 * CHUNK = input bytes read and packed at a time (even, so only the last chunk can end with half a pair)
+	 */
+	public static final int CHUNK = 1 << 16;
+
 	/**
 	 * main() method of program.
-	 * Receives from command line input file name and output file name.
-	 * Utilizes byte-by-byte manipulation to convert 8-bit (single byte) chunks into 12-bit chunks.  Writes two 12-bit
-	 * sequences to every three bytes (24 bits) until fully converted.
+	 * Receives input file name and output file name from command line arguments, or asks for them.
+	 * Utilizes BytePacker to convert 8-bit (single byte) chunks into 12-bit chunks.  Writes two 12-bit sequences to every
+	 * three bytes (24 bits) until fully converted.
 	 */
 	public static void main(String[] args) {
 		
-		Scanner scanner = new Scanner(System.in);
-		System.out.println("Enter file to compress:");
-		String input = scanner.nextLine();
-		System.out.println("Enter output file name:");
-		String output = scanner.nextLine();
-
-		byte inbyte1 = 0;
-		byte inbyte2 = 0;
-		boolean readlast = false;
-		
-		DataInputStream read = null;
-		DataOutputStream out = null;
-		
+		String input;
+		String output;
+		if(args.length >= 2){
+			input = args[0];
+			output = args[1];
+		} else {
+			Scanner scanner = new Scanner(System.in);
+			System.out.println("Enter file to compress:");
+			input = scanner.nextLine();
+			System.out.println("Enter output file name:");
+			output = scanner.nextLine();
+		}
 		
-		try{
-			read = new DataInputStream(new BufferedInputStream(
-				new FileInputStream(input)));
-			out = new DataOutputStream(new BufferedOutputStream(
-				new FileOutputStream(output)));
-			
-			inbyte1 = read.readByte();
-			readlast = true;
-			inbyte2 = read.readByte();
-			
-			//continuous loop to read input bytes
-			while(true){
-			readlast = false;
-			byte[] buffer = new byte[3];
-
-			//reads two 8-bit (single byte) values from input
-			int in1 = new Byte(inbyte1).intValue();
-			if(in1 < 0){
-				in1 += 256;
-			}
-			int in2 = new Byte(inbyte2).intValue();
-
-			if(in2 < 0){
-				in2 += 256;
-			}
+		try(InputStream read = new MappedInputStream(input);
+				OutputStream out = new ChannelOutputStream(output)){
+			byte[] chunk = new byte[CHUNK];
+			byte[] packed = new byte[BytePacker.packedLength(CHUNK)];
+			int length;
 			
-			//calls expByte method to convert two 8-bit (single byte) values to two 12-bit (3 byte) array
-			String bytestring1 = Compressor.expByte(in1);
-			String bytestring2 = Compressor.expByte(in2);
-
-			//concatenate two 12-bit sequences to 24-bit sequence
-			String combstring = bytestring1 + bytestring2;
-
-			//convert integer value to byte and write 24-bit sequence to three 8-bit values
-			buffer[0] = (byte) Integer.parseInt(combstring.substring(0,8),2);
-			buffer[1] = (byte) Integer.parseInt(combstring.substring(8,16),2);
-			buffer[2] = (byte) Integer.parseInt(combstring.substring(16,24),2);
-
-			//writes 3 byte sequence consisting of two 12-bit values and padding
-			for(int i = 0; i < buffer.length; i++){
-				out.writeByte(buffer[i]);
-			}
-			
-			inbyte1 = read.readByte();
-			readlast = true;
-			inbyte2 = read.readByte();
-			}
-			
-		}  catch(EOFException e){
-			//if end of file occurs after only having read one single byte (8-bit) value
-			//must convert 8-bit value to 12-bit and write to file
-			if(readlast == true){
-				
-				int in1 = new Byte(inbyte1).intValue();
-				if(in1 < 0){
-					in1 += 256;
-				}
-			
-				String combstring = Compressor.expByte(in1);
-				combstring = combstring + "0000";
-				byte[] buffer = new byte[2];
-				buffer[0] = (byte) Integer.parseInt(combstring.substring(0,8),2);
-				buffer[1] = (byte) Integer.parseInt(combstring.substring(8,16),2);
-			
-				for(int i = 0; i < buffer.length; i++){
-					try{
-						out.writeByte(buffer[i]);
-					} catch (FileNotFoundException f){
-						f.printStackTrace();
-					} catch (IOException f){
-						f.printStackTrace();
-					}
-				}
+			//continuous loop to read full chunks of input bytes
+			while((length = read.readNBytes(chunk, 0, chunk.length)) > 0){
+				//writes each 8-bit (single byte) value as a 12-bit value, two 12-bit values per 3 byte sequence
+				//if end of file occurs after only one single byte (8-bit) value of a pair,
+				//its 12-bit value is padded to two bytes
+				out.write(packed, 0, BytePacker.pack(chunk, 0, length, packed, 0));
 			}
 			
 			System.out.println("End of file.");
-		} catch (FileNotFoundException e){
-			e.printStackTrace();
 		} catch(IOException e){
 			e.printStackTrace();
-		} finally{
-			if (read != null) {
-				try {
-					read.close();
-				} catch (IOException e) {
-					e.printStackTrace();
-				}
-			}
-			if (out != null) {
-				try {
-					out.close();
-				} catch (IOException e) {
-					e.printStackTrace();
-				}
-			}
-
 		}
 	}
 
 	/**
 	 * expByte() method receives integer value, converts to 8-bit binary string, and returns equivalent 12-bit array
-	 * utilizing sufficient "0" as padding.
+	 * utilizing sufficient "0" as padding.  No longer used by main() (see BytePacker); kept for display and testing.
 	 * Pre-Condition: integer received must be from 8-bit (single byte) sequence.
 	 * Post-Condition: returns 12-bit binary sequence as String.
 	 */
@@ -0,0 +1,50 @@
+/**
+ * DecodeDictionary interface describes the LZW decompression table.  Each entry is the code of its string without the
+ * last byte, plus that last byte, so adding an entry is O(1); strings are written by walking the prefix chain
+ * backwards into the caller's output buffer.  Codes 0 - 255 are the single-byte entries.
+ *
+ * After a reset the first entry (code 256) may extend a string from the previous table, whose codes are about to be
+ * reused.  Implementations copy that entry out in full, matching what the original String[] table held.  Heap
+ * (ArrayDecodeDictionary) and native (OffHeapDecodeDictionary) tables are selected through DictionaryType.
+ */
+public interface DecodeDictionary {
+
+	/**
+	 * reset() method returns table to its 256 single-byte entries.  Entries above 255 are overwritten as codes are
+	 * reused, so by default nothing is cleared; strings of the previous table stay readable until then.
+	 */
+	default void reset(){
+	}
+
+	/**
+	 * add() method enters string(prefix) + first under code.
+	 * Int prefix: code of prior string.
+	 * Int first: byte appended to prior string.
+	 * Int code: code assigned to the new string.
+	 */
+	void add(int prefix, int first, int code);
+
+	/**
+	 * capacity() method returns number of codes the table can hold.
+	 */
+	int capacity();
+
+	/**
+	 * length() method returns number of bytes in string of code.
+	 */
+	int length(int code);
+
+	/**
+	 * write() method copies string of code into out, starting at off.
+	 * Pre-Condition: out has at least length(code) bytes from off.
+	 * Post-Condition: returns number of bytes written.
+	 */
+	int write(int code, byte[] out, int off);
+
+	/**
+	 * close() method releases memory held outside the heap (see OffHeapDecodeDictionary).  Heap tables hold none, so
+	 * by default it does nothing.  The table must not be used afterwards.
+	 */
+	default void close(){
+	}
+}
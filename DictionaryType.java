@@ -0,0 +1,62 @@
+import java.util.HashMap;
+import java.util.TreeMap;
+
+/**
+ * DictionaryType enum selects the LZWDictionary implementation used for compression.
+ * ARRAY = direct-indexed int array (fastest, capacity * 256 ints)
+ * HASH = open-addressing int hash table (default, small footprint)
+ * TREEMAP = original String-keyed TreeMap (reference)
+ * HASHMAP = original String-keyed HashMap (reference)
+ * OFFHEAP = open-addressing hash table in native memory, decompression table too (for 16-bit codes next to
+ * latency-sensitive code, must be closed)
+ *
+ * Type id is recorded in checkpoints, so a run is only resumed with the type it was checkpointed with.
+ */
+public enum DictionaryType {
+	ARRAY(0), HASH(1), TREEMAP(2), HASHMAP(3), OFFHEAP(4);
+
+	/**
+	 * DictionaryType enum instance variables
+	 * int id = value recorded in checkpoints (see Checkpoint.flags()), kept when types are added or reordered
+	 */
+	private final int id;
+
+	DictionaryType(int id){
+		this.id = id;
+	}
+
+	/**
+	 * id() method returns value recorded in checkpoints for this type.
+	 */
+	public int id(){
+		return id;
+	}
+
+	/**
+	 * create() method returns a new dictionary of this type holding the 256 single-byte entries.
+	 * Int capacity: number of codes in table (eg, 4096 for 12-bit codes).
+	 */
+	public LZWDictionary create(int capacity){
+		switch(this){
+			case ARRAY:
+				return new ArrayDictionary(capacity);
+			case TREEMAP:
+				return new MapDictionary(new TreeMap<String, Integer>(), capacity);
+			case HASHMAP:
+				return new MapDictionary(new HashMap<String, Integer>(), capacity);
+			case OFFHEAP:
+				return new OffHeapDictionary(capacity);
+			default:
+				return new HashDictionary(capacity);
+		}
+	}
+
+	/**
+	 * createDecode() method returns a new decompression table holding the 256 single-byte entries, in native memory for
+	 * OFFHEAP and on the heap for every other type.
+	 * Int capacity: number of codes in table (eg, 4096 for 12-bit codes).
+	 */
+	public DecodeDictionary createDecode(int capacity){
+		return this == OFFHEAP ? new OffHeapDecodeDictionary(capacity) : new ArrayDecodeDictionary(capacity);
+	}
+}
@@ -0,0 +1,12 @@
+/**
+ * ExpansionPolicy enum selects what LZWCompress and BatchCompression do with an input that CompressionEstimate
+ * predicts will come out larger than it went in (eg, Overview.mp4 and other already-compressed media).
+ * COMPRESS = compress every input regardless of the estimate (original behavior, no estimate is taken)
+ * STORE = write inputs predicted to expand as a container of stored blocks, read back by any LZWInputStream
+ * SKIP = write no output at all for inputs predicted to expand
+ *
+ * Inputs predicted to shrink are compressed with the usual settings under every policy.
+ */
+public enum ExpansionPolicy {
+	COMPRESS, STORE, SKIP
+}
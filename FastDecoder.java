@@ -0,0 +1,259 @@
+import java.io.*;
+
+/**
+ * FastDecoder class is a high-throughput decoder for headerless 12-bit ON_FULL codewords, the format LZWCompress
+ * writes by default.  Every 3 input bytes hold exactly two codes, so codes are unpacked in pairs with fixed shifts
+ * instead of through a bit buffer.  Decoded output goes into one large reusable window, and each table entry is kept
+ * as (offset, length) of its bytes in that window rather than as a prefix chain: entry = string(priorcodeword) +
+ * first byte of the next string, which is exactly the bytes already decoded at the prior codeword's offset.  Decoding
+ * a code is then a single bulk copy, and adding an entry is two stores.  Output is delivered from the window in bulk.
+ * Produces the same bytes as LZWDecoder for the same input.
+ */
+public class FastDecoder {
+
+	/**
+	 * FastDecoder class constants
+	 * MAXCODE = number of codes in a 12-bit table
+	 * WINDOW = initial size of output window
+	 * CHUNK = decoded bytes gathered before delivering them
+	 */
+	private static final int MAXCODE = 1 << 12;
+	private static final int WINDOW = 1 << 21;
+	private static final int CHUNK = 1 << 18;
+
+	/**
+	 * FastDecoder class instance variables
+	 * InputStream in = source of packed codewords
+	 * byte[] input = packed codewords, inpos - inlimit not yet decoded
+	 * int inpos = next undecoded byte in input
+	 * int inlimit = number of valid bytes in input
+	 * byte[] window = decoded bytes, pos - limit not yet delivered, keep - limit still referenced by the table
+	 * int pos = next undelivered byte in window
+	 * int limit = end of decoded bytes in window
+	 * int keep = start of the bytes of the current table in window
+	 * int[] offset = window offset of the bytes of each code 256 - 4095
+	 * int[] length = number of bytes of each code 256 - 4095
+	 * int index = next code to enter into table
+	 * int priorOff = window offset of string(priorcodeword)
+	 * int priorLen = length of string(priorcodeword), 0 before first codeword
+	 * boolean done = no more codewords in input
+	 * CompressionStats stats = receives counts below at end of input, null for none
+	 * long decoded = bytes decoded
+	 * long phrases = codewords decoded
+	 * long resets = table resets
+	 */
+	private InputStream in;
+	private byte[] input = new byte[65536];
+	private int inpos;
+	private int inlimit;
+	private byte[] window = new byte[WINDOW];
+	private int pos;
+	private int limit;
+	private int keep;
+	private int[] offset = new int[MAXCODE];
+	private int[] length = new int[MAXCODE];
+	private int index = LZWCompression.FIRST_CODE;
+	private int priorOff;
+	private int priorLen;
+	private boolean done;
+	private CompressionStats stats;
+	private long decoded;
+	private long phrases;
+	private long resets;
+
+	/**
+	 * FastDecoder() constructor.
+	 * InputStream in: source of headerless 12-bit codewords.
+	 */
+	public FastDecoder(InputStream in){
+		this.in = in;
+	}
+
+	/**
+	 * setStats() method selects where the counts of the stream are added when its input ends.
+	 * CompressionStats stats: run statistics, or null to count nothing.
+	 */
+	public void setStats(CompressionStats stats){
+		this.stats = stats;
+	}
+
+	/**
+	 * read() method copies up to len decoded bytes into b.
+	 * Post-Condition: returns number of bytes copied, or -1 at end of input.
+	 */
+	public int read(byte[] b, int off, int len) throws IOException {
+		if(pos == limit && !fill()){
+			return -1;
+		}
+		int n = Math.min(len, limit - pos);
+		System.arraycopy(window, pos, b, off, n);
+		pos += n;
+		return n;
+	}
+
+	/**
+	 * transferTo() method decodes all remaining input and writes it to out straight from the window.
+	 * Post-Condition: returns number of bytes written.
+	 */
+	public long transferTo(OutputStream out) throws IOException {
+		long total = 0;
+		while(pos < limit || fill()){
+			out.write(window, pos, limit - pos);
+			total += limit - pos;
+			pos = limit;
+		}
+		return total;
+	}
+
+	/**
+	 * fill() method decodes codeword pairs until CHUNK bytes are ready or input ends.
+	 * Post-Condition: returns false if no bytes are ready.
+	 */
+	private boolean fill() throws IOException {
+		while(limit - pos < CHUNK && !done){
+			if(inlimit - inpos < 3 && !refill()){
+				//odd number of codes: last code is followed by 4 padding bits
+				if(inlimit - inpos == 2){
+					decode(((input[inpos] & 0xFF) << 4) | ((input[inpos + 1] & 0xFF) >>> 4));
+				}
+				inpos = inlimit;
+				done = true;
+				if(stats != null){
+					stats.decoded(decoded, phrases, 0, resets);
+				}
+				break;
+			}
+			byte[] b = input;
+			int p = inpos;
+			int end = p + (inlimit - p) / 3 * 3;
+			while(p < end && limit - pos < CHUNK){
+				int b1 = b[p + 1] & 0xFF;
+				decode(((b[p] & 0xFF) << 4) | (b1 >>> 4));
+				decode(((b1 & 0x0F) << 8) | (b[p + 2] & 0xFF));
+				p += 3;
+			}
+			inpos = p;
+		}
+		return limit > pos;
+	}
+
+	/**
+	 * refill() method moves the 0 - 2 undecoded bytes to the front of input and reads more after them.
+	 * Post-Condition: returns false if fewer than 3 bytes remain at end of input.
+	 */
+	private boolean refill() throws IOException {
+		int rest = inlimit - inpos;
+		System.arraycopy(input, inpos, input, 0, rest);
+		inpos = 0;
+		inlimit = rest;
+		while(inlimit < 3){
+			int n = in.read(input, inlimit, input.length - inlimit);
+			if(n < 0){
+				return false;
+			}
+			inlimit += n;
+		}
+		return true;
+	}
+
+	/**
+	 * decode() method appends string(codeword) to the window and enters string(priorcodeword) + its first byte into
+	 * the table, resetting the table first if it is full.
+	 */
+	private void decode(int code) throws IOException {
+		if(priorLen == 0){
+			first(code);
+			return;
+		}
+
+		//reset to prevent overflow, string(priorcodeword) stays in the window for the first new entry
+		int next = index;
+		if(next == MAXCODE){
+			next = LZWCompression.FIRST_CODE;
+			keep = priorOff;
+			resets++;
+		}
+		if(code > next){
+			throw new IOException("Invalid codeword " + code + " at table index " + next);
+		}
+
+		int len = code < LZWCompression.FIRST_CODE ? 1 : code < next ? length[code] : priorLen + 1;
+		if(limit + len > window.length){
+			room(len);
+		}
+		byte[] w = window;
+		int dest = limit;
+		if(code < LZWCompression.FIRST_CODE){
+			w[dest] = (byte) code;
+		} else if(code < next){
+			copy(w, offset[code], dest, len);
+		} else {
+			//codeword not yet in table: string(priorcodeword) + firstchar(string(priorcodeword))
+			copy(w, priorOff, dest, priorLen);
+			w[dest + priorLen] = w[priorOff];
+		}
+
+		//string(priorcodeword) + firstchar(string(codeword)) is already in the window right where it starts
+		offset[next] = priorOff;
+		length[next] = priorLen + 1;
+		index = next + 1;
+		priorOff = dest;
+		priorLen = len;
+		limit = dest + len;
+		decoded += len;
+		phrases++;
+	}
+
+	/**
+	 * copy() method copies len earlier bytes of the window to dest, short strings byte by byte.
+	 */
+	private static void copy(byte[] w, int src, int dest, int len){
+		if(len <= 16){
+			for(int i = 0; i < len; i++){
+				w[dest + i] = w[src + i];
+			}
+		} else {
+			System.arraycopy(w, src, w, dest, len);
+		}
+	}
+
+	/**
+	 * first() method appends the first codeword, which is always a single byte.
+	 */
+	private void first(int code) throws IOException {
+		if(code >= LZWCompression.FIRST_CODE){
+			throw new IOException("Invalid first codeword " + code);
+		}
+		room(1);
+		priorOff = limit;
+		priorLen = 1;
+		window[limit++] = (byte) code;
+		decoded++;
+		phrases++;
+	}
+
+	/**
+	 * room() method makes space for len more bytes in the window, by moving the bytes still needed (undelivered or
+	 * referenced by the table) to the front, or by growing the window if they take most of it.
+	 */
+	private void room(int len){
+		if(limit + len <= window.length){
+			return;
+		}
+		int start = Math.min(keep, pos);
+		int used = limit - start;
+		byte[] target = window;
+		if(used + len > window.length / 2){
+			target = new byte[Math.max(window.length, used + len) * 2];
+		}
+		System.arraycopy(window, start, target, 0, used);
+		window = target;
+		for(int code = LZWCompression.FIRST_CODE; code < index; code++){
+			offset[code] -= start;
+		}
+		pos -= start;
+		limit -= start;
+		keep -= start;
+		priorOff -= start;
+	}
+}
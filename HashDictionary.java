@@ -0,0 +1,137 @@
+import java.util.Arrays;
+
+/**
+ * HashDictionary class is an open-addressing LZW compression table.  Packs prefix code and byte into a single int key
+ * and probes linearly through primitive int arrays, so no objects are created on lookup() or add().  Table size is
+ * twice the code capacity, which keeps probe chains short even when the dictionary is full.
+ *
+ * Each key carries the generation stamp of the table it was added to.  reset() only starts a new generation, and
+ * slots stamped with an older one (other than the generation kept by mark()) count as empty, so a reset costs the same
+ * however large the table is.  Slots are only cleared for real when the stamps run out, once every MAX_GENERATION
+ * resets.
+ */
+public class HashDictionary implements LZWDictionary {
+
+	/**
+	 * HashDictionary class constants
+	 * KEY_BITS = bits of a packed key (prefix * 256 + byte) + 1 for codes of up to 16 bits, the stamp is kept above them
+	 * MAX_GENERATION = largest generation stamp
+	 */
+	public static final int KEY_BITS = 25;
+	public static final int MAX_GENERATION = (1 << (32 - KEY_BITS)) - 1;
+
+	/**
+	 * HashDictionary class instance variables
+	 * int[] keys = generation << KEY_BITS | (prefix * 256 + byte) + 1 for each slot, 0 when never used
+	 * int[] codes = code stored for each slot
+	 * int mask = keys.length - 1 (table length is a power of two)
+	 * int generation = stamp of entries added since the last reset()
+	 * int kept = stamp of entries kept across reset() by mark(), 0 if none
+	 */
+	private int[] keys;
+	private int[] codes;
+	private int mask;
+	private int generation = 1;
+	private int kept;
+
+	/**
+	 * HashDictionary() constructor.
+	 * Int capacity: number of codes in table (eg, 4096 for 12-bit codes).
+	 */
+	public HashDictionary(int capacity){
+		int length = Integer.highestOneBit(Math.max(capacity, 256) - 1) << 2;
+		keys = new int[length];
+		codes = new int[length];
+		mask = length - 1;
+	}
+
+	public int lookup(int prefix, int next){
+		int key = ((prefix << 8) | next) + 1;
+		int current = (generation << KEY_BITS) | key;
+		int marked = (kept << KEY_BITS) | key;
+		int slot = hash(key) & mask;
+		while(true){
+			int k = keys[slot];
+			if(k == current || k == marked){
+				return codes[slot];
+			}
+			if(!live(k)){
+				return -1;
+			}
+			slot = (slot + 1) & mask;
+		}
+	}
+
+	/**
+	 * add() method enters prefix + next under code.  A prefix that is not yet defined in this table (eg, a code carried
+	 * over from before reset()) cannot be matched again, so it is not entered.
+	 */
+	public void add(int prefix, int next, int code){
+		if(prefix >= code){
+			return;
+		}
+		int key = ((prefix << 8) | next) + 1;
+		int slot = hash(key) & mask;
+		while(live(keys[slot])){
+			slot = (slot + 1) & mask;
+		}
+		keys[slot] = (generation << KEY_BITS) | key;
+		codes[slot] = code;
+	}
+
+	/**
+	 * reset() method starts a new generation, leaving the entries kept by mark().  Entries kept by mark() were added
+	 * to a table without live entries of any other generation, so their probe chains stay intact.
+	 */
+	public void reset(){
+		if(generation == MAX_GENERATION){
+			restamp();
+		}
+		generation++;
+	}
+
+	public void mark(){
+		kept = generation;
+		reset();
+	}
+
+	public void clear(){
+		kept = 0;
+		reset();
+	}
+
+	/**
+	 * live() method returns true if slot key k belongs to the current or kept generation.
+	 */
+	private boolean live(int k){
+		int stamp = k >>> KEY_BITS;
+		return stamp == generation || (stamp == kept && k != 0);
+	}
+
+	/**
+	 * restamp() method clears every slot but the kept entries, which are stamped generation 1, once the stamps have
+	 * run out.
+	 */
+	private void restamp(){
+		if(kept == 0){
+			Arrays.fill(keys, 0);
+			generation = 0;
+			return;
+		}
+		int low = (1 << KEY_BITS) - 1;
+		for(int i = 0; i < keys.length; i++){
+			int k = keys[i];
+			keys[i] = k != 0 && k >>> KEY_BITS == kept ? (1 << KEY_BITS) | (k & low) : 0;
+		}
+		kept = 1;
+		generation = 1;
+	}
+
+	/**
+	 * hash() method spreads packed key bits across the table (Fibonacci hashing).
+	 */
+	static int hash(int key){
+		int h = key * 0x9E3779B9;
+		return h ^ (h >>> 16);
+	}
+}
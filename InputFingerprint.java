@@ -0,0 +1,92 @@
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.zip.CRC32C;
+import java.util.zip.Checksum;
+
+/**
+ * InputFingerprint class keeps the CRC32C of the first bytes of a file, so every Checkpoint of LZWCompress records
+ * which input it was taken on (see Checkpoint.fingerprint()).  The encoder adds input as it consumes it (see
+ * LZWEncoder.setCheckpoints()), so the file is only read here for the prefix before the checkpoint a run resumes from.
+ */
+public class InputFingerprint implements Checksum {
+
+	/**
+	 * InputFingerprint class instance variables
+	 * Path file = input file
+	 * CRC32C crc = CRC32C of the first length bytes of file
+	 * long length = bytes of file added to crc
+	 */
+	private Path file;
+	private CRC32C crc = new CRC32C();
+	private long length;
+
+	/**
+	 * InputFingerprint() constructor.
+	 * String file: input file.
+	 */
+	public InputFingerprint(String file){
+		this.file = Paths.get(file);
+	}
+
+	/**
+	 * load() method starts the fingerprint over with the first offset bytes of file, read through a direct buffer.
+	 * Long offset: end of the prefix (eg, input offset of a Checkpoint to resume from).
+	 * Post-Condition: returns CRC32C of the first offset bytes of file, throws IOException if file is shorter.
+	 */
+	public int load(long offset) throws IOException {
+		reset();
+		if(offset > 0){
+			ByteBuffer buffer = ByteBuffer.allocateDirect((int) Math.min(offset, MappedInputStream.DIRECT));
+			try(FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)){
+				while(length < offset){
+					buffer.clear();
+					buffer.limit((int) Math.min(buffer.capacity(), offset - length));
+					while(buffer.hasRemaining()){
+						if(channel.read(buffer, length + buffer.position()) < 0){
+							throw new IOException("Input " + file + " is shorter than offset " + offset);
+						}
+					}
+					buffer.flip();
+					length += buffer.remaining();
+					crc.update(buffer);
+				}
+			}
+		}
+		return value(offset);
+	}
+
+	/**
+	 * value() method returns CRC32C of the first offset bytes of file.
+	 * Post-Condition: throws IllegalStateException if the fingerprint holds some other number of bytes.
+	 */
+	public int value(long offset){
+		if(offset != length){
+			throw new IllegalStateException("Fingerprint covers " + length + " bytes, not " + offset);
+		}
+		return (int) crc.getValue();
+	}
+
+	public void update(int b){
+		crc.update(b);
+		length++;
+	}
+
+	public void update(byte[] b, int off, int len){
+		crc.update(b, off, len);
+		length += len;
+	}
+
+	public long getValue(){
+		return crc.getValue();
+	}
+
+	/**
+	 * reset() method starts the fingerprint over from the first byte of file.
+	 */
+	public void reset(){
+		crc.reset();
+		length = 0;
+	}
+}
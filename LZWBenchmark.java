@@ -0,0 +1,379 @@
+import java.io.*;
+import java.lang.management.ManagementFactory;
+import java.nio.file.*;
+import java.util.*;
+
+/**
+ * LZWBenchmark class measures LZWCompress and LZWDecompress end to end, and expByte/unexpByte on their own, across
+ * synthetic corpora (random, repetitive text, CSV-like and binary) so results can be reproduced without the input
+ * files quoted in LZWCompression.  Each case is parameterised by dictionary implementation and input size, warmed up,
+ * then timed over several iterations.  Reports throughput in MB/s and heap allocation in bytes per input byte
+ * (allocation of the calling thread, so run with -t 1, the default).  Small payloads (1KB, 16KB) are also compressed
+ * with a new LZWCompression per call and with the pooled codecs of CompressionService, to show per-call setup cost,
+ * and CSV rows are compressed one at a time with and without a trained SharedDictionary.  Greedy and flexible parsing
+ * are compared on each corpus for both speed and ratio.  Needs no build; the JMH module in benchmarks/ measures the
+ * end-to-end and packing cases under forked, warmed-up JVMs.
+ *
+ * Can be executed from command line utilizing syntax:
+ * java LZWBenchmark [-s size,size,...] [-d array,hash,...] [-c random,text,csv,binary] [-i iterations] [-w warmup]
+ * [-o compression options, eg "-w 16 -r adaptive"]
+ */
+public class LZWBenchmark {
+
+	/**
+	 * LZWBenchmark class constants
+	 * CORPORA = names of synthetic corpora
+	 */
+	public static final String[] CORPORA = {"random", "text", "csv", "binary"};
+
+	/**
+	 * LZWBenchmark class instance variables
+	 * int iterations = timed runs per case
+	 * int warmup = untimed runs per case, to let the JIT compile the codec
+	 * String[] options = extra compression options (see LZWCompression.withOptions())
+	 * Path dir = working directory for input and output files
+	 * long sink = results folded in so the JIT cannot remove timed work
+	 */
+	private int iterations;
+	private int warmup;
+	private String[] options;
+	private Path dir;
+	private long sink;
+
+	/**
+	 * LZWBenchmark() constructor.
+	 * Int iterations: timed runs per case.
+	 * Int warmup: untimed runs per case.
+	 * String[] options: extra compression options.
+	 */
+	public LZWBenchmark(int iterations, int warmup, String[] options) throws IOException {
+		this.iterations = iterations;
+		this.warmup = warmup;
+		this.options = options;
+		dir = Files.createTempDirectory("lzwbench");
+	}
+
+	/**
+	 * corpus() method returns size bytes of a synthetic corpus, the same bytes for every run.
+	 * String name: random (incompressible), text (repetitive words), csv (numeric records) or binary (structured
+	 * records with small integers and runs of zeros).
+	 */
+	public static byte[] corpus(String name, int size){
+		Random random = new Random(95771);
+		byte[] data = new byte[size];
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(size + 64);
+		switch(name){
+		case "random":
+			random.nextBytes(data);
+			return data;
+		case "text":
+			String[] words = {"the ", "compression ", "table ", "of ", "code ", "string ", "and ", "LZW ", "data ",
+					"is ", "a ", "dictionary ", "prefix ", "byte ", "entry ", "\n"};
+			while(bytes.size() < size){
+				bytes.writeBytes(words[(int) Math.abs(random.nextGaussian() * 4) % words.length].getBytes());
+			}
+			break;
+		case "csv":
+			while(bytes.size() < size){
+				String line = random.nextInt(100000) + "," + (40 + random.nextInt(1000) / 1000.0) + ","
+						+ (-79 - random.nextInt(1000) / 1000.0) + "," + (1990 + random.nextInt(10)) + ",PA\n";
+				bytes.writeBytes(line.getBytes());
+			}
+			break;
+		case "binary":
+			while(bytes.size() < size){
+				int value = random.nextInt(1 << (random.nextInt(4) * 4 + 4));
+				bytes.write(value >>> 24);
+				bytes.write(value >>> 16);
+				bytes.write(value >>> 8);
+				bytes.write(value);
+				for(int i = random.nextInt(8); i > 0; i--){
+					bytes.write(0);
+				}
+			}
+			break;
+		default:
+			throw new IllegalArgumentException("Unknown corpus: " + name);
+		}
+		System.arraycopy(bytes.toByteArray(), 0, data, 0, size);
+		return data;
+	}
+
+	/**
+	 * codec() method benchmarks LZWCompress and LZWDecompress on one corpus with one dictionary implementation.
+	 * Post-Condition: prints one line per direction, verifies decompressed output matches input.
+	 */
+	public void codec(String name, int size, DictionaryType type) throws IOException {
+		byte[] data = corpus(name, size);
+		Path input = dir.resolve(name + "." + size);
+		Path packed = dir.resolve(name + "." + size + ".lzw");
+		Path output = dir.resolve(name + "." + size + ".out");
+		Files.write(input, data);
+
+		String[] args = new String[options.length + 1];
+		args[0] = type.name();
+		System.arraycopy(options, 0, args, 1, options.length);
+		LZWCompression compression = LZWCompression.withOptions(args, 0);
+
+		Result compress = measure(size, () -> compression.LZWCompress(input.toString(), packed.toString()));
+		Result decompress = measure(size, () -> compression.LZWDecompress(packed.toString(), output.toString()));
+		if(!Arrays.equals(data, Files.readAllBytes(output))){
+			throw new IOException("Round trip failed: " + name + " " + size + " " + type);
+		}
+		long compressed = Files.size(packed);
+		Files.delete(input);
+		Files.delete(packed);
+		Files.delete(output);
+		report("compress", name, size, type.name(), compress, compressed);
+		report("decompress", name, size, type.name(), decompress, compressed);
+	}
+
+	/**
+	 * parsing() method benchmarks compress() with greedy parsing against flexible parsing (see LZWEncoder) on one
+	 * corpus, with the extra compression options.
+	 * Post-Condition: prints one line each, verifies both decompress to the input.
+	 */
+	public void parsing(String name, int size, DictionaryType type) throws IOException {
+		byte[] data = corpus(name, size);
+		String[] args = new String[options.length + 1];
+		args[0] = type.name();
+		System.arraycopy(options, 0, args, 1, options.length);
+		for(boolean flexible : new boolean[] {false, true}){
+			LZWCompression compression = LZWCompression.withOptions(args, 0);
+			compression.setFlexibleParsing(flexible);
+			byte[] packed = compression.compress(data, 0, size);
+			if(!Arrays.equals(data, compression.decompress(packed, 0, packed.length))){
+				throw new IOException("Round trip failed: " + name + " " + size + " " + type + " flexible " + flexible);
+			}
+			Result result = measure(size, () -> {
+				try{
+					sink += compression.compress(data, 0, size).length;
+				} catch(IOException e){
+					throw new UncheckedIOException(e);
+				}
+			});
+			report(flexible ? "flexible" : "greedy", name, size, type.name(), result, packed.length);
+		}
+	}
+
+	/**
+	 * packing() method benchmarks expByte and unexpByte on their own, over size 12-bit values, against the bulk
+	 * BytePacker kernel of Compressor and Decompressor.
+	 */
+	public void packing(int size){
+		LZWCompression compression = new LZWCompression();
+		byte[] data = corpus("random", size);
+		Result exp = measure(size, () -> {
+			for(int i = 0; i + 1 < size; i += 2){
+				sink += compression.expByte(((data[i] & 0xFF) << 4) | (data[i + 1] & 0x0F)).length();
+			}
+		});
+		Result unexp = measure(size, () -> {
+			for(int i = 0; i + 1 < size; i++){
+				sink += compression.unexpByte(data[i], data[i + 1], (i & 1) == 0);
+			}
+		});
+		byte[] packed = new byte[BytePacker.packedLength(size)];
+		byte[] original = new byte[size];
+		Result pack = measure(size, () -> {
+			sink += BytePacker.pack(data, 0, size, packed, 0);
+		});
+		Result unpack = measure(size, () -> {
+			sink += BytePacker.unpack(packed, 0, packed.length, original, 0);
+		});
+		report("expByte", "random", size, "-", exp, -1);
+		report("unexpByte", "random", size, "-", unexp, -1);
+		report("pack", "random", size, "-", pack, -1);
+		report("unpack", "random", size, "-", unpack, -1);
+	}
+
+	/**
+	 * service() method benchmarks many small payloads: a new LZWCompression per payload against pooled codecs of a
+	 * CompressionService, on the calling thread.
+	 * Post-Condition: prints one line each, throughput includes per-call setup.
+	 */
+	public void service(String name, int size, DictionaryType type) throws IOException {
+		int calls = Math.max(16, (1 << 22) / size);
+		byte[] data = corpus(name, size);
+		try(CompressionService service = new CompressionService(() -> new LZWCompression(type), 1)){
+			if(!Arrays.equals(data, service.decompress(service.compress(data)))){
+				throw new IOException("Round trip failed: " + name + " " + size + " " + type);
+			}
+			Result fresh = measure(size * calls, () -> {
+				for(int i = 0; i < calls; i++){
+					try{
+						sink += new LZWCompression(type).compress(data, 0, size).length;
+					} catch(IOException e){
+						throw new UncheckedIOException(e);
+					}
+				}
+			});
+			Result pooled = measure(size * calls, () -> {
+				for(int i = 0; i < calls; i++){
+					try{
+						sink += service.compress(data).length;
+					} catch(IOException e){
+						throw new UncheckedIOException(e);
+					}
+				}
+			});
+			report("new/call", name, size, type.name(), fresh, -1);
+			report("service", name, size, type.name(), pooled, -1);
+		}
+	}
+
+	/**
+	 * records() method benchmarks compressing the rows of a CSV-like corpus one at a time, starting from the 256
+	 * single-byte entries against a SharedDictionary trained on a separate sample of rows.
+	 * Post-Condition: prints one line each, ratio is total compressed size of all rows.
+	 */
+	public void records(int size, DictionaryType type) throws IOException {
+		byte[] sample = corpus("csv", size * 2);
+		List<byte[]> training = new ArrayList<byte[]>();
+		List<byte[]> rows = new ArrayList<byte[]>();
+		int start = 0;
+		for(int i = 0; i < sample.length; i++){
+			if(sample[i] == '\n'){
+				(start < size ? training : rows).add(Arrays.copyOfRange(sample, start, i + 1));
+				start = i + 1;
+			}
+		}
+		int total = rows.stream().mapToInt(row -> row.length).sum();
+		SharedDictionary dictionary = SharedDictionary.train(training, SharedDictionary.DEFAULT_ENTRIES);
+		for(SharedDictionary shared : new SharedDictionary[] {null, dictionary}){
+			LZWCompression compression = new LZWCompression(type);
+			compression.setMaxCodeWidth(12);
+			compression.setDictionary(shared);
+			long compressed = 0;
+			for(byte[] row : rows){
+				byte[] packed = compression.compress(row, 0, row.length);
+				if(!Arrays.equals(row, compression.decompress(packed, 0, packed.length))){
+					throw new IOException("Round trip failed: record " + type);
+				}
+				compressed += packed.length;
+			}
+			Result result = measure(total, () -> {
+				for(byte[] row : rows){
+					try{
+						sink += compression.compress(row, 0, row.length).length;
+					} catch(IOException e){
+						throw new UncheckedIOException(e);
+					}
+				}
+			});
+			report(shared == null ? "records" : "trained", "csv", total, type.name(), result, compressed);
+		}
+	}
+
+	/**
+	 * measure() method runs task warmup times untimed, then iterations times timed.
+	 * Post-Condition: returns best MB/s and mean allocated bytes per input byte of the timed runs.
+	 */
+	private Result measure(int size, Runnable task){
+		PrintStream console = System.out;
+		System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+		try{
+			for(int i = 0; i < warmup; i++){
+				task.run();
+			}
+			long best = Long.MAX_VALUE;
+			long allocated = 0;
+			for(int i = 0; i < iterations; i++){
+				long before = allocatedBytes();
+				long start = System.nanoTime();
+				task.run();
+				best = Math.min(best, System.nanoTime() - start);
+				allocated += allocatedBytes() - before;
+			}
+			return new Result(size / (best / 1e9) / (1 << 20), allocated / (double) iterations / size);
+		} finally{
+			System.setOut(console);
+		}
+	}
+
+	/**
+	 * allocatedBytes() method returns heap bytes allocated so far by the calling thread, or 0 if not supported.
+	 */
+	private static long allocatedBytes(){
+		java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+		if(threads instanceof com.sun.management.ThreadMXBean){
+			return ((com.sun.management.ThreadMXBean) threads).getThreadAllocatedBytes(Thread.currentThread().getId());
+		}
+		return 0;
+	}
+
+	/**
+	 * report() method prints one result line.
+	 */
+	private static void report(String bench, String corpus, int size, String type, Result result, long compressed){
+		System.out.printf("%-11s %-7s %10d %-8s %9.2f MB/s %9.2f B/byte %s%n", bench, corpus, size, type,
+				result.mbps, result.alloc, compressed < 0 ? "" : String.format("%.1f%%", 100.0 * compressed / size));
+	}
+
+	/**
+	 * Result class holds throughput (MB/s) and allocation (bytes per input byte) of one case.
+	 */
+	private static class Result {
+		private double mbps;
+		private double alloc;
+
+		private Result(double mbps, double alloc){
+			this.mbps = mbps;
+			this.alloc = alloc;
+		}
+	}
+
+	/**
+	 * main() method of benchmark, see class comment for options.
+	 */
+	public static void main(String[] args) throws IOException {
+		int[] sizes = {1 << 16, 1 << 20, 1 << 24};
+		String[] types = {"array", "hash", "hashmap", "treemap"};
+		String[] corpora = CORPORA;
+		int iterations = 5;
+		int warmup = 3;
+		String[] options = new String[0];
+		for(int i = 0; i + 1 < args.length; i += 2){
+			if(args[i].equals("-s")){
+				sizes = Arrays.stream(args[i + 1].split(",")).mapToInt(Integer::parseInt).toArray();
+			} else if(args[i].equals("-d")){
+				types = args[i + 1].split(",");
+			} else if(args[i].equals("-c")){
+				corpora = args[i + 1].split(",");
+			} else if(args[i].equals("-i")){
+				iterations = Integer.parseInt(args[i + 1]);
+			} else if(args[i].equals("-w")){
+				warmup = Integer.parseInt(args[i + 1]);
+			} else if(args[i].equals("-o")){
+				options = args[i + 1].trim().split("\\s+");
+			} else {
+				throw new IllegalArgumentException("Unknown option: " + args[i]);
+			}
+		}
+
+		LZWBenchmark benchmark = new LZWBenchmark(iterations, warmup, options);
+		System.out.printf("%-11s %-7s %10s %-8s %14s %16s %s%n", "benchmark", "corpus", "size", "dict", "throughput",
+				"allocation", "ratio");
+		for(int size : sizes){
+			for(String corpus : corpora){
+				for(String type : types){
+					benchmark.codec(corpus, size, DictionaryType.valueOf(type.toUpperCase()));
+				}
+				benchmark.parsing(corpus, size, DictionaryType.valueOf(types[0].toUpperCase()));
+			}
+			benchmark.packing(size);
+		}
+		for(int size : new int[] {1 << 10, 1 << 14}){
+			for(String type : types){
+				benchmark.service("text", size, DictionaryType.valueOf(type.toUpperCase()));
+			}
+		}
+		for(String type : types){
+			benchmark.records(1 << 20, DictionaryType.valueOf(type.toUpperCase()));
+		}
+		Files.delete(benchmark.dir);
+		if(benchmark.sink == 42){
+			System.out.println();
+		}
+	}
+}
@@ -1,11 +1,16 @@
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
 import java.util.*;
 
 /**
  * LZWCompression class houses main() function call of program used to complete LZW Compression Algorithm on either
  * ASCII or binary file.  Can be run from command line (eg, java LZWCompression c input.txt output.txt) or directly
  * from Java editor.  Takes input file, either ASCII or binary, and performs 12-bit LZW Compression algorithm.  Writes
- * compressed file to output in 8-bit (single byte) chunks.  Ability to utilize either a HashMap or TreeMap in compression.
+ * compressed file to output in 8-bit (single byte) chunks.  Ability to select the compression table through
+ * DictionaryType: primitive array or hash table keyed by (prefix code, next byte), or the original String-keyed HashMap
+ * or TreeMap (eg, java LZWCompression c input.txt output.txt treemap) used for the timings below.
  * For decompression, takes input file, either ASCII or binary, and performs 12-bit LZW Decompression, reading in 8-bit
  * (single byte) chunks.  LZW Algorithm performs best with significant redundancies within data.  For more information,
  * see https://en.wikipedia.org/wiki/Lempel%E2%80%93Ziv%E2%80%93Welch.
@@ -25,60 +30,305 @@ import java.util.*;
  * (D) CrimeLatLonXY1990.xsv: TreeMap, 0.415 sec; HashMap, 0.446 sec;
  * (D) Overview.mp4: TreeMap, 32.827 sec; HashMap, 32.454 sec;
  */
-public class LZWCompression {
+public class LZWCompression implements Closeable {
+
+	/**
+	 * LZWCompression class constants
+	 * FIRST_CODE = first code after the 256 single-byte entries
+	 * MIN_WIDTH = starting code width in variable-width mode
+	 * CLEAR_CODE = code telling the decompressor to reset its table (ADAPTIVE reset policy only)
+	 * MAGIC = first two bytes of variable-width output ("LZ"); headerless 12-bit output always starts below 0x10
+	 * MAGIC_DICTIONARY = first two bytes of output compressed with a trained SharedDictionary ("LD")
+	 * MAGIC_CONTAINER = first two bytes of output written in blocks ("LC", see BlockCodec)
+	 * FLAG_BLOCKED = header flag for output written in blocks before the container format (read only)
+	 * BLOCK_STORED = block type holding raw bytes
+	 * BLOCK_LZW = block type holding LZW codewords
+	 * BLOCK_END = block type ending the container, followed by the block index
+	 * PIPELINE_BUFFER = bytes per buffer handed between reader, codec and writer threads when pipelined
+	 * PIPELINE_BUFFERS = number of buffers in each direction when pipelined
+	 * CHECKPOINT_SUFFIX = appended to the output file name to name the checkpoint file of LZWCompress
+	 * HEADERLESS = marks cached decoder settings for headerless input (never part of a header)
+	 */
+	public static final int FIRST_CODE = 256;
+	public static final int CLEAR_CODE = 256;
+	public static final int MIN_WIDTH = 9;
+	public static final int MAGIC = 0x4C5A;
+	public static final int MAGIC_DICTIONARY = 0x4C44;
+	public static final int MAGIC_CONTAINER = 0x4C43;
+	public static final int FLAG_BLOCKED = 0x80;
+	public static final int BLOCK_STORED = 0;
+	public static final int BLOCK_LZW = 1;
+	public static final int BLOCK_END = 0xFF;
+	public static final int PIPELINE_BUFFER = 1 << 20;
+	public static final int PIPELINE_BUFFERS = 4;
+	public static final String CHECKPOINT_SUFFIX = ".ckpt";
+	private static final int HEADERLESS = 0x100;
 
 	/**
 	 * LZWCompression class instance variables
-	 * HashMap<String, Integer> = HashMap object for compression
-	 * TreeMap<String, Intger> = TreeMap object for compression (only one of Hash or Tree necessary)
-	 * String[] decomp = String array used for decompression
+	 * DictionaryType type = dictionary implementation used for compression
+	 * LZWDictionary table = compression table keyed by (prefix code, next byte), see DictionaryType
+	 * DecodeDictionary decomp = prefix/suffix table used for decompression
+	 * boolean variablewidth = codes grow from 9 bits to maxwidth (true) or are always 12 bits without header (false)
+	 * int maxwidth = largest code width, table holds 2^maxwidth codes
+	 * ResetPolicy policy = when the table starts over (headerless 12-bit output is always ON_FULL)
+	 * int blocksize = input bytes per block, 0 to write a single stream of codewords
+	 * int threads = number of blocks compressed or decompressed in parallel
+	 * SharedDictionary dictionary = trained starting entries, null for the 256 single-byte entries alone
+	 * boolean skipcorrupt = blocks failing their CRC32C are skipped during decompression instead of failing
+	 * boolean pipelined = file input and output run on their own reader and writer threads (see setPipelined())
+	 * boolean flexible = strings are chosen by flexible parsing instead of greedily (see setFlexibleParsing())
+	 * ExpansionPolicy expansion = what LZWCompress does with input predicted to expand (see CompressionEstimate)
+	 * long checkpoint = input bytes between checkpoints of LZWCompress, 0 for none (see setCheckpointInterval())
+	 * CompressionListener listener = receives stats of every LZWCompress and LZWDecompress run, null for none
+	 * LZWEncoder encoder = encoder over table reused by compress(byte[]), null until first use or after settings change
+	 * LZWDecoder decoder = decoder over decomp reused by decompress(byte[]), null until first use
+	 * int decoderflags = header flags decoder was created for, plus HEADERLESS for headerless input
+	 * ByteArrayOutputStream bytes = output buffer reused by compress(byte[]) and decompress(byte[])
+	 * BitWriter bits = codeword packer over bytes reused by compress(byte[])
 	 */
-	//private HashMap<String, Integer> table = new HashMap<String, Integer>();
-	private TreeMap<String, Integer> table = new TreeMap<String, Integer>();
-    private String[] decomp;
+	private DictionaryType type;
+	private LZWDictionary table;
+    private DecodeDictionary decomp;
+    private boolean variablewidth = false;
+    private int maxwidth = 12;
+    private ResetPolicy policy = ResetPolicy.ON_FULL;
+    private int blocksize = 0;
+    private int threads = 1;
+    private SharedDictionary dictionary;
+    private boolean skipcorrupt;
+    private boolean pipelined;
+    private boolean flexible;
+    private ExpansionPolicy expansion = ExpansionPolicy.COMPRESS;
+    private long checkpoint;
+    private CompressionListener listener;
+    private LZWEncoder encoder;
+    private LZWDecoder decoder;
+    private int decoderflags = -1;
+    private ByteArrayOutputStream bytes;
+    private BitWriter bits;
 
 	/**
 	 * LZWCompression() constructor.
-	 * Initializes either HashMap or TreeMap table with 0 - 255 bit characters
-	 * Initializes decomp String (for decompression) with 0 - 255 bit characters
+	 * Uses the default HASH dictionary for compression.
 	 */
     public LZWCompression(){
-		//Enter all symbols into table, hash map
-    	for(int i = 0; i < 256; i++){
-    		table.put(Character.toString((char) i), i); 
-    	}
+    	this(DictionaryType.HASH);
+    }
+
+	/**
+	 * LZWCompression() constructor.
+	 * DictionaryType type: dictionary implementation for compression (TREEMAP or HASHMAP reproduce original timings)
+	 * Initializes table with 0 - 255 bit characters
+	 * Initializes decomp table (for decompression) with 0 - 255 bit characters
+	 */
+    public LZWCompression(DictionaryType type){
+    	this.type = type;
+    	
+		//Enter all symbols into table
+    	table = type.create(1 << maxwidth);
     	
     	//enter all symbols into table, array
-    	decomp = new String[4096];
-    	for(int l = 0; l < 256; l++){
-    		decomp[l] = Character.toString((char) l);
-    	}
+    	decomp = type.createDecode(1 << maxwidth);
     			
     }
 
 	/**
-	 * createTable() method creates a new table (either HashMap or TreeMap) to prevent 12-bit overflow during compression.
+	 * setMaxCodeWidth() method switches compression to variable-width codes, like Unix compress.  Codes start at 9
+	 * bits and grow by one bit each time the table doubles, up to maxwidth bits (2^maxwidth codes).  Output starts
+	 * with a 3-byte header ("LZ" + maxwidth and reset policy) so LZWDecompress configures itself.
+	 * Int maxwidth: largest code width, 12 - 16.
+	 */
+    public void setMaxCodeWidth(int maxwidth){
+    	if(maxwidth < 12 || maxwidth > 16){
+    		throw new IllegalArgumentException("Maximum code width must be 12 - 16 bits: " + maxwidth);
+    	}
+    	this.variablewidth = true;
+    	this.maxwidth = maxwidth;
+    	close();
+    	table = type.create(1 << maxwidth);
+    	decomp = type.createDecode(1 << maxwidth);
+    }
+
+	/**
+	 * setResetPolicy() method selects when the table starts over.  Any policy other than ON_FULL must be recorded in
+	 * the header, so it also switches to variable-width codes (see setMaxCodeWidth()).
+	 * ResetPolicy policy: NEVER, ON_FULL or ADAPTIVE.
+	 */
+    public void setResetPolicy(ResetPolicy policy){
+    	this.policy = policy;
+    	encoder = null;
+    	if(policy != ResetPolicy.ON_FULL && !variablewidth){
+    		setMaxCodeWidth(maxwidth);
+    	}
+    }
+
+	/**
+	 * setBlockSize() method switches compression to blocks of blocksize input bytes.  Each block starts with a fresh
+	 * table and is stored raw whenever LZW codewords would be larger, so incompressible input (eg, Overview.mp4) grows
+	 * by only 13 bytes per block instead of 35%.  Blocks are written as a self-describing container (see BlockCodec):
+	 * a header, a CRC32C per block and a trailing block index, so truncated or corrupt output is detected.  It also
+	 * switches to variable-width codes (see setMaxCodeWidth()).
+	 * Int blocksize: input bytes per block (eg, 1048576), or 0 for a single stream of codewords.
+	 */
+    public void setBlockSize(int blocksize){
+    	if(blocksize < 0){
+    		throw new IllegalArgumentException("Block size must not be negative: " + blocksize);
+    	}
+    	this.blocksize = blocksize;
+    	if(blocksize > 0 && !variablewidth){
+    		setMaxCodeWidth(maxwidth);
+    	}
+    }
+
+	/**
+	 * setThreads() method sets how many blocks are compressed or decompressed in parallel on a ForkJoinPool (see
+	 * BlockCodec).  Only output written in blocks (see setBlockSize()) can be split across threads; output is the same
+	 * for any number of threads.
+	 * Int threads: number of threads, 1 to run on the calling thread.
+	 */
+    public void setThreads(int threads){
+    	if(threads < 1){
+    		throw new IllegalArgumentException("Thread count must be at least 1: " + threads);
+    	}
+    	this.threads = threads;
+    }
+
+	/**
+	 * setDictionary() method starts the table (and every reset) from trained entries instead of the 256 single-byte
+	 * entries alone (see SharedDictionary.train()), so small records compress well.  The dictionary id is recorded in
+	 * the header and the same dictionary must be set to decompress, so it also switches to variable-width codes (see
+	 * setMaxCodeWidth()).
+	 * SharedDictionary dictionary: trained entries, or null for none.
 	 */
-    //public HashMap<String, Integer> createTable(){
-    public TreeMap<String, Integer> createTable(){
-    	//HashMap<String, Integer> newtable = new HashMap<String, Integer>();
-    	TreeMap<String, Integer> newtable = new TreeMap<String, Integer>();
-    	//Enter all symbols into table
-    	for(int i = 0; i < 256; i++){
-    		newtable.put(Character.toString((char) i), i); 
+    public void setDictionary(SharedDictionary dictionary){
+    	this.dictionary = dictionary;
+    	encoder = null;
+    	if(dictionary != null && !variablewidth){
+    		setMaxCodeWidth(maxwidth);
     	}
-    	return newtable;
     }
 
 	/**
-	 * createArray() method creates a new String[] array(to prevent 12-bit overflow during decompression.
+	 * setSkipCorrupt() method selects whether decompression skips blocks that fail their CRC32C or cannot be decoded
+	 * (true) or stops with an IOException (false, the default).  Only output written in blocks has checksums.
 	 */
-    public String[] createArray(){
-    	String[] newstring = new String[4096];
-    	for(int l = 0; l < 256; l++){
-    		newstring[l] = Character.toString((char) l);
+    public void setSkipCorrupt(boolean skipcorrupt){
+    	this.skipcorrupt = skipcorrupt;
+    }
+
+	/**
+	 * setPipelined() method selects whether LZWCompress and LZWDecompress read the input file on a reader thread and
+	 * write the output file on a writer thread (true), handing large buffers to and from the codec through bounded
+	 * queues (see PipelineInputStream and PipelineOutputStream), or do all three on the calling thread (false, the
+	 * default).  Output bytes are the same either way; pipelining overlaps disk time with codec time.
+	 */
+    public void setPipelined(boolean pipelined){
+    	this.pipelined = pipelined;
+    }
+
+	/**
+	 * pipelined() method returns whether LZWCompress and LZWDecompress read and write files on their own threads.
+	 */
+    public boolean pipelined(){
+    	return pipelined;
+    }
+
+	/**
+	 * setFlexibleParsing() method selects flexible parsing (LZW-FP, true) or greedy parsing (false, the default).
+	 * Instead of always writing the longest string in the table, the compressor looks one phrase ahead and writes the
+	 * prefix after which the next string reaches furthest.  Usually fewer codewords on text and records, for several
+	 * lookups per input byte; decompression is unchanged, so any decompressor reads the output (see LZWBenchmark for
+	 * speed and ratio per corpus).
+	 */
+    public void setFlexibleParsing(boolean flexible){
+    	this.flexible = flexible;
+    	encoder = null;
+    }
+
+	/**
+	 * setExpansionPolicy() method selects what LZWCompress (and BatchCompression) does with input that
+	 * CompressionEstimate predicts will expand: compress it anyway (COMPRESS, the default, no estimate is taken), write
+	 * it as stored blocks (STORE) or write nothing (SKIP).  Sampling costs a small part of compressing the input, and
+	 * saves almost all of it on already-compressed media (eg, Overview.mp4).
+	 */
+    public void setExpansionPolicy(ExpansionPolicy expansion){
+    	this.expansion = expansion;
+    }
+
+	/**
+	 * expansionPolicy() method returns what LZWCompress does with input predicted to expand (see setExpansionPolicy()).
+	 */
+    public ExpansionPolicy expansionPolicy(){
+    	return expansion;
+    }
+
+	/**
+	 * setCheckpointInterval() method makes LZWCompress resumable.  At the first table reset after every checkpoint
+	 * bytes of input, output is flushed and a Checkpoint (input offset, output offset, pending bits and next code) is
+	 * saved next to the output file, output name + CHECKPOINT_SUFFIX.  A run that finds a checkpoint for the same input
+	 * and settings continues from it, and writes output identical to an uninterrupted run; the checkpoint is deleted
+	 * once output is complete.  Only a single stream of codewords under ON_FULL or ADAPTIVE is checkpointed: blocks
+	 * (see setBlockSize()) and the NEVER policy never reset the table of a stream.
+	 * Long checkpoint: input bytes between checkpoints (eg, 1073741824), or 0 for none.
+	 */
+    public void setCheckpointInterval(long checkpoint){
+    	if(checkpoint < 0){
+    		throw new IllegalArgumentException("Checkpoint interval must not be negative: " + checkpoint);
     	}
-    	return newstring;
+    	this.checkpoint = checkpoint;
+    }
+
+	/**
+	 * checkpointInterval() method returns input bytes between checkpoints of LZWCompress, 0 for none.
+	 */
+    public long checkpointInterval(){
+    	return checkpoint;
+    }
+
+	/**
+	 * setListener() method selects who receives the CompressionStats of every LZWCompress and LZWDecompress run (eg, a
+	 * CompressionMetrics registered with JMX), or null to collect none.  Without a listener nothing is counted or
+	 * timed.
+	 */
+    public void setListener(CompressionListener listener){
+    	this.listener = listener;
+    }
+
+	/**
+	 * codeWidth() method returns bits needed in variable-width mode to write any code of a table holding count codes.
+	 */
+    public static int codeWidth(int count){
+    	return Math.max(MIN_WIDTH, 32 - Integer.numberOfLeadingZeros(count - 1));
+    }
+
+	/**
+	 * createTable() method resets the table in place to its 256 single-byte entries to prevent code overflow during
+	 * compression.
+	 */
+    public LZWDictionary createTable(){
+    	table.reset();
+    	return table;
+    }
+
+	/**
+	 * createArray() method resets the decompression table in place to prevent code overflow during decompression.
+	 */
+    public DecodeDictionary createArray(){
+    	decomp.reset();
+    	return decomp;
+    }
+
+	/**
+	 * close() method releases the tables of this instance (native memory with DictionaryType.OFFHEAP, nothing otherwise).
+	 * The instance must not be used afterwards.
+	 */
+    public void close(){
+    	encoder = null;
+    	decoder = null;
+    	decoderflags = -1;
+    	table.close();
+    	decomp.close();
     }
 
 	/**
@@ -88,131 +338,50 @@ public class LZWCompression {
 	 * Post-Condition: outputs LZW compressed file to working directory.
 	 */
     public void LZWCompress(String input, String output){
+    	CompressionStats stats = listener == null ? null : new CompressionStats(true);
+    	long start = System.nanoTime();
     	
-    	byte inbyte1 = 0;
-    	byte inbyte2 = 0;
-    	DataInputStream read = null;
-		DataOutputStream out = null;
-		int index;
-		boolean firstval = true;
-		byte[] buffer = new byte[3];
-		String s = "";
-    	
-  	   	index = 256;
-    	
+    	//map input and write output from a direct buffer, end of input is detected by length
     	try{
-    		read = new DataInputStream(new BufferedInputStream(
-    				new FileInputStream(input)));
-    		out = new DataOutputStream(new BufferedOutputStream(
-    				new FileOutputStream(output)));
-    		
-    		//read(first character from w into string s)
-    		inbyte1 = read.readByte();
-    		
-    		char sc = (char) (inbyte1 & 0xFF);
-    		s = "" + sc;
-    		
-    		while(true){
-    			//read character c
-    			inbyte2 = read.readByte();
-    			
-    			char c = (char) (inbyte2 & 0xFF);
-    			
-    			//if s+c in table
-    			if(table.containsKey(s + c)){
-    				//s = s + c
-    				s = s + c;
-    			} else {
-    				//output codeword
-    				//get 12-bit binary string
-    				String outstring = this.expByte(table.get(s));
-    				
-    				//store either in first/second or second/third spot in 3-byte buffer
-    				if(firstval){
-    					buffer[0] = (byte) Integer.parseInt(outstring.substring(0,8),2);
-    					buffer[1] = (byte) Integer.parseInt(outstring.substring(8,12) + "0000",2); 
-    				} else {
-    					buffer[1] += (byte) Integer.parseInt(outstring.substring(0,4),2); 
-    					buffer[2] = (byte) Integer.parseInt(outstring.substring(4,12),2);
-    					
-    					//if buffer full, write to file
-    					for(int j = 0; j < 3; j++){
-    						out.writeByte(buffer[j]);
-    						buffer[j] = 0;
-    					}
-    				}
-    				
-    				firstval = !firstval;
-    				
-    				//enter s + c into table
-    				//if overflow, create new table
-    				if(index < 4096){
-    					table.put(s + c, index);
-    					index += 1;
-    				} else {
-    					this.table = createTable();
-    					index = 256;
-    					table.put(s + c,  index);
-    					index += 1;
+    		ExpansionPolicy plan = plan(input);
+    		if(plan == ExpansionPolicy.SKIP){
+    			System.out.println("Skipped, input predicted to expand.");
+    			return;
+    		}
+    		if(plan == ExpansionPolicy.STORE){
+    			System.out.println("Storing, input predicted to expand.");
+    		}
+    		boolean checkpointed = checkpoint > 0 && blocksize == 0 && plan == ExpansionPolicy.COMPRESS;
+    		if(checkpoint > 0 && blocksize > 0){
+    			System.out.println("Output written in blocks is not checkpointed.");
+    		}
+    		Path saved = Paths.get(output + CHECKPOINT_SUFFIX);
+    		InputFingerprint prefix = new InputFingerprint(input);
+    		Checkpoint resume = checkpointed ? resumable(input, output, saved, prefix) : null;
+    		try(InputStream read = source(input, resume == null ? 0 : resume.input(), stats);
+    				LZWOutputStream out = plan == ExpansionPolicy.STORE ? storeTo(destination(output, 0, stats))
+    						: compressTo(destination(output, resume == null ? 0 : resume.output(), stats))){
+    			out.setStats(stats);
+    			if(checkpointed){
+    				long length = Files.size(Paths.get(input));
+    				out.setCheckpoints(checkpoint, next -> {
+    					next.setSource(length, prefix.value(next.input()), checkpointFlags(),
+    							dictionary == null ? 0 : dictionary.id());
+    					next.save(saved);
+    				}, prefix);
+    				if(resume != null){
+    					out.resume(resume);
     				}
-    				//s = c
-    				s = "" + c;
     			}
+    			read.transferTo(out);
     		}
-			
-    	} catch(EOFException e){
-    		
-    		//if end of file, output codeword
-    		String outstring = this.expByte(table.get(s));
-			
-    		if(firstval){
-				buffer[0] = (byte) Integer.parseInt(outstring.substring(0,8),2);
-				buffer[1] = (byte) Integer.parseInt(outstring.substring(8,12) + "0000",2);
-				
-				for (int k = 0; k < 2; k++){
-					try{
-						out.writeByte(buffer[k]);
-					} catch (FileNotFoundException f){
-						f.printStackTrace();
-					} catch (IOException f){
-						f.printStackTrace();
-					}
-				}
-				
-			} else {
-				buffer[1] += (byte) Integer.parseInt(outstring.substring(0,4),2); 
-				buffer[2] = (byte) Integer.parseInt(outstring.substring(4,12),2);
-				
-				for (int k = 0; k < 3; k++){
-					try{
-						out.writeByte(buffer[k]);
-						buffer[k] = 0;
-					} catch (FileNotFoundException f){
-						f.printStackTrace();
-					} catch (IOException f){
-						f.printStackTrace();
-					}
-				}
-			}
+    		if(checkpointed){
+    			Files.deleteIfExists(saved);
+    		}
+    		completed(stats, start);
     		System.out.println("End of file.");
     	} catch(IOException e){
 			e.printStackTrace();
-		} finally{
-			if (read != null) {
-				try {
-					read.close();
-				} catch (IOException e) {
-					e.printStackTrace();
-				}
-			}
-			if (out != null) {
-				try {
-					out.close();
-				} catch (IOException e) {
-					e.printStackTrace();
-				}
-			}
-
 		}
     	
     }
@@ -224,105 +393,348 @@ public class LZWCompression {
 	 * Post-Condition: outputs LZW decompressed file to working directory.
 	 */
     public void LZWDecompress(String input, String output){
-		byte[] buffer = new byte[3];
-    	DataInputStream read = null;
-		DataOutputStream out = null;
-		int index;
-		boolean firstval = true;
-		int priorkey;
-		int currkey;
-		
-		index = 256;
-		
+    	CompressionStats stats = listener == null ? null : new CompressionStats(false);
+    	long start = System.nanoTime();
 		try{
-			read = new DataInputStream(new BufferedInputStream(
-    				new FileInputStream(input)));
-    		out = new DataOutputStream(new BufferedOutputStream(
-    				new FileOutputStream(output)));
-    		
-    		buffer[0] = read.readByte();
-    		buffer[1] = read.readByte();
-    		
-    		//read prior codeword and output corresponding value
-    		priorkey = unexpByte(buffer[0],buffer[1],firstval);
-    		
-    		out.writeBytes(decomp[priorkey]);
-    		firstval = !firstval;
-    		
-    		while(true){
-    			//read codeword
-    			if(firstval){
-    				buffer[0] = read.readByte();
-    				buffer[1] = read.readByte();
-    				currkey = unexpByte(buffer[0],buffer[1],firstval);
-    			} else {
-    				buffer[2] = read.readByte();
-    				currkey = unexpByte(buffer[1],buffer[2],firstval);
-    			}
-    			firstval = !firstval;
-    			
-    			if(currkey >= index){
-    				//enter string (priorcodeword) + firstchar(string(priorcodeword)) into table
-    				String inval = decomp[priorkey] + (char) (decomp[priorkey].charAt(0) & 0xFF);
-    				
-    				//reset to prevent overflow
-    				if(index == 4096){
-    					this.decomp = createArray();
-    					index = 256;
-    				}
-    				    				
-    				decomp[index] = inval;
-    				
-    				//output string(priorcodeword) + firstchar(string(priorcodeword))
-    				out.writeBytes(decomp[index]);
-    				index += 1;
-    			} else {
-    				
-    				//enter string (priorcodeword) + firstchar(string(codeword)) into table
-    				String inval = decomp[priorkey] + (char) (decomp[currkey].charAt(0) & 0xFF);
-    				
-    				//reset to prevent overflow
-    				if(index == 4096){
-    					this.decomp = createArray();
-    					index = 256;
-    				}
-    				
-   					decomp[index] = inval;
-    				
-    				//output string associated with codeword
-    				out.writeBytes(decomp[currkey]);
-    				index += 1;
-    			}
-    			//priorcodeword = codeword
-    			priorkey = currkey;
-    		}
-    		
-		} catch(EOFException e){
-    		System.out.println("End of file.");
+			try(LZWInputStream read = decompressFrom(source(input, 0, stats));
+					OutputStream out = destination(output, 0, stats)){
+				read.setStats(stats);
+				read.transferTo(out);
+			}
+			completed(stats, start);
+			System.out.println("End of file.");
 		} catch(IOException e){
 			e.printStackTrace();
-		} finally{
-			if (read != null) {
-				try {
-					read.close();
-				} catch (IOException e) {
-					e.printStackTrace();
-				}
-			}
-			if (out != null) {
-				try {
-					out.close();
-				} catch (IOException e) {
-					e.printStackTrace();
-				}
-			}
 		}
 		
+    }
+
+	/**
+	 * source() method opens input file for LZWCompress and LZWDecompress at offset, behind a reader thread if
+	 * pipelined, and counts bytes and time read into stats if any.
+	 */
+    private InputStream source(String input, long offset, CompressionStats stats) throws IOException {
+    	InputStream read = new MappedInputStream(input);
+    	if(read.skip(offset) != offset){
+    		read.close();
+    		throw new IOException("Input " + input + " is shorter than offset " + offset);
+    	}
+    	if(pipelined){
+    		read = new PipelineInputStream(read, PIPELINE_BUFFER, PIPELINE_BUFFERS);
+    	}
+    	return stats == null ? read : stats.reading(read);
+    }
+
+	/**
+	 * destination() method creates output file for LZWCompress and LZWDecompress, or continues it after its first keep
+	 * bytes, behind a writer thread if pipelined, and counts bytes and time written into stats if any.
+	 */
+    private OutputStream destination(String output, long keep, CompressionStats stats) throws IOException {
+    	OutputStream out = new ChannelOutputStream(output, keep);
+    	if(pipelined){
+    		out = new PipelineOutputStream(out, PIPELINE_BUFFER, PIPELINE_BUFFERS);
+    	}
+    	return stats == null ? out : stats.writing(out);
+    }
+
+	/**
+	 * resumable() method returns the checkpoint saved by an interrupted LZWCompress of input to output, or null to
+	 * start over when there is none or it was taken on other input, other settings or longer output.  Input is other
+	 * input unless its length and the CRC32C of its bytes before the checkpoint match (the only input read twice);
+	 * prefix is left holding that CRC32C when resuming, and empty when starting over.
+	 */
+    private Checkpoint resumable(String input, String output, Path saved, InputFingerprint prefix) throws IOException {
+    	if(!Files.exists(saved)){
+    		return null;
+    	}
+    	Checkpoint resume;
+    	try{
+    		resume = Checkpoint.load(saved);
+    	} catch(IOException e){
+    		System.out.println(e.getMessage() + ", starting over.");
+    		return null;
+    	}
+    	Path written = Paths.get(output);
+    	if(!resume.matches(Files.size(Paths.get(input)), checkpointFlags(), dictionary == null ? 0 : dictionary.id())
+    			|| !Files.exists(written) || Files.size(written) < resume.output()
+    			|| prefix.load(resume.input()) != resume.fingerprint()){
+    		System.out.println("Checkpoint " + saved + " does not match input, output or settings, starting over.");
+    		prefix.reset();
+    		return null;
+    	}
+    	System.out.println("Resuming from checkpoint at " + resume + ".");
+    	return resume;
+    }
+
+	/**
+	 * checkpointFlags() method returns the settings recorded in checkpoints (see Checkpoint.flags()).
+	 */
+    private int checkpointFlags(){
+    	return Checkpoint.flags(maxwidth, policy, variablewidth, flexible, type);
+    }
+
+	/**
+	 * completed() method records time of a finished run and hands its stats to the listener, if there is one.
+	 */
+    private void completed(CompressionStats stats, long start){
+    	if(stats != null){
+    		stats.finish(System.nanoTime() - start);
+    		listener.completed(stats);
+    	}
+    }
+
+	/**
+	 * readRange() method decompresses length original bytes starting at offset, from a file written in blocks (see
+	 * setBlockSize()).  Blocks are independent, so only the blocks covering the range are read and decoded, found
+	 * through the block index at the end of the file.
+	 * String input: compressed file written in blocks
+	 * Long offset: offset in original data of first byte to return
+	 * Int length: number of bytes to return
+	 * Post-Condition: returns bytes of the range, fewer than length if the range runs past the end of the data.
+	 */
+    public byte[] readRange(String input, long offset, int length) throws IOException {
+    	if(offset < 0 || length < 0){
+    		throw new IllegalArgumentException("Invalid range " + offset + " + " + length);
+    	}
+    	try(FileChannel channel = FileChannel.open(Paths.get(input), StandardOpenOption.READ)){
+    		ByteBuffer header = ByteBuffer.allocate(BlockCodec.HEADER_SIZE);
+    		BlockIndex.readFully(channel, header, 0);
+    		if(header.getShort(0) != MAGIC_CONTAINER){
+    			throw new IOException("Random access needs a file written in blocks: " + input);
+    		}
+    		BlockCodec blocks = BlockCodec.open(new DataInputStream(
+    				new ByteArrayInputStream(header.array(), 2, BlockCodec.HEADER_SIZE - 2)), 1, dictionary, type);
+    		try{
+    			BlockIndex index = BlockIndex.read(channel);
+
+    			byte[] range = new byte[(int) Math.max(0, Math.min(length, index.total() - offset))];
+    			int filled = 0;
+    			for(int block = index.block(offset); filled < range.length; block++){
+    				byte[] original = blocks.readBlock(channel, index, block);
+    				int from = (int) Math.max(0, offset + filled - index.start(block));
+    				int n = Math.min(range.length - filled, original.length - from);
+    				System.arraycopy(original, from, range, filled, n);
+    				filled += n;
+    			}
+    			return range;
+    		} finally{
+    			blocks.close();
+    		}
+    	}
+    }
+
+	/**
+	 * compressTo() method returns an LZWOutputStream writing compressed bytes to out with the settings of this
+	 * LZWCompression (dictionary type, code width, reset policy, block size, threads, trained dictionary and
+	 * parsing).
+	 */
+    public LZWOutputStream compressTo(OutputStream out){
+    	LZWOutputStream write = new LZWOutputStream(out, type, maxwidth, variablewidth, policy, blocksize, threads,
+    			dictionary);
+    	write.setFlexibleParsing(flexible);
+    	return write;
+    }
+
+	/**
+	 * storeTo() method returns an LZWOutputStream writing a container of stored blocks to out (see
+	 * ExpansionPolicy.STORE), in blocks of blocksize bytes, or of PIPELINE_BUFFER bytes when this LZWCompression writes a
+	 * single stream.  Read back like any other container, without a trained dictionary.
+	 */
+    public LZWOutputStream storeTo(OutputStream out){
+    	LZWOutputStream write = new LZWOutputStream(out, type, maxwidth, true, policy,
+    			blocksize > 0 ? blocksize : PIPELINE_BUFFER, 1, null);
+    	write.setStoreOnly(true);
+    	return write;
+    }
+
+	/**
+	 * estimate() method predicts the compressed size and compression time of input with the settings of this
+	 * LZWCompression, by compressing a few chunks of it (see CompressionEstimate).  Chunks are whole blocks when
+	 * writing blocks, otherwise 8 bytes per code of the table (64KB - 1MB), so every chunk fills the table and is
+	 * measured past the start of a fresh table.
+	 * String input: file to estimate.
+	 * Post-Condition: returns estimate, exact for input no longer than the chunks together.
+	 */
+    public CompressionEstimate estimate(String input) throws IOException {
+    	if(blocksize > 0){
+    		return CompressionEstimate.sample(this, input, blocksize, threads);
+    	}
+    	int length = Math.max(CompressionEstimate.MIN_SAMPLE, Math.min(CompressionEstimate.MAX_SAMPLE, 8 << maxwidth));
+    	return CompressionEstimate.sample(this, input, length, 1);
+    }
+
+	/**
+	 * plan() method returns what LZWCompress will do with input under the expansion policy: COMPRESS it, STORE it or
+	 * SKIP it.  Only input predicted to expand is stored or skipped, and nothing is estimated under COMPRESS.
+	 */
+    public ExpansionPolicy plan(String input) throws IOException {
+    	if(expansion == ExpansionPolicy.COMPRESS || !estimate(input).expands()){
+    		return ExpansionPolicy.COMPRESS;
+    	}
+    	return expansion;
+    }
+
+	/**
+	 * decompressFrom() method returns an LZWInputStream reading decompressed bytes from in.  Code width, reset policy
+	 * and blocks are read from the header, so only the number of threads and trained dictionary are taken from this
+	 * LZWCompression.
+	 */
+    public LZWInputStream decompressFrom(InputStream in){
+    	LZWInputStream read = new LZWInputStream(in, threads, dictionary);
+    	read.setSkipCorrupt(skipcorrupt);
+    	read.setDictionaryType(type);
+    	return read;
+    }
+
+	/**
+	 * compress() method compresses the remaining bytes of src, in memory.
+	 * Post-Condition: returns compressed bytes (position 0), src position is advanced to its limit.
+	 */
+    public ByteBuffer compress(ByteBuffer src) throws IOException {
+    	ByteArrayOutputStream bytes = new ByteArrayOutputStream(src.remaining() / 2 + 16);
+    	try(LZWOutputStream out = compressTo(bytes)){
+    		write(src, out);
+    	}
+    	return ByteBuffer.wrap(bytes.toByteArray());
+    }
+
+	/**
+	 * decompress() method decompresses the remaining bytes of src, in memory.
+	 * Post-Condition: returns original bytes (position 0), src position is advanced to its limit.
+	 */
+    public ByteBuffer decompress(ByteBuffer src) throws IOException {
+    	//containers record their original length in the block index
+    	int size = src.remaining() * 2 + 16;
+    	if(src.remaining() > 1 && src.getShort(src.position()) == MAGIC_CONTAINER){
+    		try{
+    			size = (int) Math.min(Integer.MAX_VALUE - 8, BlockIndex.parse(src.slice()).total());
+    		} catch(IOException e){
+    			//reported while decoding
+    		}
+    	}
+    	ByteArrayOutputStream bytes = new ByteArrayOutputStream(size);
+    	InputStream in;
+    	if(src.hasArray()){
+    		in = new ByteArrayInputStream(src.array(), src.arrayOffset() + src.position(), src.remaining());
+    		src.position(src.limit());
+    	} else {
+    		byte[] copy = new byte[src.remaining()];
+    		src.get(copy);
+    		in = new ByteArrayInputStream(copy);
+    	}
+    	try(LZWInputStream read = decompressFrom(in)){
+    		read.transferTo(bytes);
+    	}
+    	return ByteBuffer.wrap(bytes.toByteArray());
+    }
+
+	/**
+	 * compress() method compresses len bytes of data in memory, in the same format as LZWCompress.  Reuses this
+	 * instance's table, encoder and buffers (reset in place), so repeated calls on small payloads avoid rebuilding
+	 * them.  Not thread-safe; see CompressionService for sharing instances between threads.
+	 * Post-Condition: returns compressed bytes.
+	 */
+    public byte[] compress(byte[] data, int off, int len) throws IOException {
+    	if(blocksize > 0){
+    		ByteBuffer packed = compress(ByteBuffer.wrap(data, off, len));
+    		return Arrays.copyOfRange(packed.array(), packed.position(), packed.limit());
+    	}
+    	if(encoder == null){
+    		encoder = new LZWEncoder(table, maxwidth, variablewidth, policy);
+    		encoder.setDictionary(dictionary);
+    		encoder.setFlexibleParsing(flexible);
+    	}
+    	if(bytes == null){
+    		bytes = new ByteArrayOutputStream(8192);
+    		bits = new BitWriter(bytes);
+    	}
+    	bytes.reset();
+    	if(variablewidth){
+    		LZWOutputStream.writeHeader(bytes, maxwidth, policy, dictionary);
+    	}
+    	encoder.start(bits);
+    	encoder.encode(data, off, len);
+    	encoder.finish();
+    	bits.flush();
+    	return bytes.toByteArray();
+    }
+
+	/**
+	 * decompress() method decompresses len bytes of data in memory.  Code width, reset policy and blocks are read
+	 * from the header; the decompression table, decoder and buffers of this instance are reused (reset in place).
+	 * Not thread-safe; see CompressionService for sharing instances between threads.
+	 * Post-Condition: returns original bytes.
+	 */
+    public byte[] decompress(byte[] data, int off, int len) throws IOException {
+    	//headerless 12-bit ON_FULL codewords unless data starts with "LZ" or "LD" + flags header
+    	int flags = 12;
+    	int start = off;
+    	SharedDictionary shared = null;
+    	if(len > 1 && (data[off] & 0xFF) == (MAGIC >>> 8) && (data[off + 1] & 0xFF) == (MAGIC_CONTAINER & 0xFF)){
+    		ByteBuffer original = decompress(ByteBuffer.wrap(data, off, len));
+    		return Arrays.copyOfRange(original.array(), original.position(), original.limit());
+    	}
+    	if(len > 0 && (data[off] & 0xFF) == (MAGIC >>> 8)){
+    		boolean trained = len >= 3 && (data[off + 1] & 0xFF) == (MAGIC_DICTIONARY & 0xFF);
+    		if(len < 3 || ((data[off + 1] & 0xFF) != (MAGIC & 0xFF) && !trained) || (trained && len < 7)){
+    			throw new IOException("Invalid header");
+    		}
+    		flags = LZWInputStream.checkFlags(data[off + 2] & 0xFF);
+    		start += 3;
+    		if(trained){
+    			int id = ((data[off + 3] & 0xFF) << 24) | ((data[off + 4] & 0xFF) << 16) | ((data[off + 5] & 0xFF) << 8)
+    					| (data[off + 6] & 0xFF);
+    			shared = LZWInputStream.checkDictionary(id, dictionary);
+    			start += 4;
+    		}
+    		if((flags & FLAG_BLOCKED) != 0){
+    			ByteBuffer original = decompress(ByteBuffer.wrap(data, off, len));
+    			return Arrays.copyOfRange(original.array(), original.position(), original.limit());
+    		}
+    	}
+    	if(start == off){
+    		flags |= HEADERLESS;
+    	}
+    	if(decoder == null || decoderflags != flags){
+    		int width = flags & 0x1F;
+    		if(decomp.capacity() < (1 << width)){
+    			decomp.close();
+    			decomp = type.createDecode(1 << width);
+    		}
+    		decoder = new LZWDecoder(decomp, width, start > off, ResetPolicy.fromId((flags >>> 5) & 0x03));
+    		decoderflags = flags;
+    	}
+    	if(bytes == null){
+    		bytes = new ByteArrayOutputStream(8192);
+    		bits = new BitWriter(bytes);
+    	}
+    	bytes.reset();
+    	decoder.setDictionary(shared);
+    	decoder.start(new BitReader(data, start, off + len - start));
+    	decoder.transferTo(bytes);
+    	return bytes.toByteArray();
+    }
+
+	/**
+	 * write() method writes the remaining bytes of src to out, straight from the backing array if there is one.
+	 */
+    private static void write(ByteBuffer src, OutputStream out) throws IOException {
+    	if(src.hasArray()){
+    		out.write(src.array(), src.arrayOffset() + src.position(), src.remaining());
+    		src.position(src.limit());
+    		return;
+    	}
+    	byte[] chunk = new byte[Math.min(src.remaining(), 65536)];
+    	while(src.hasRemaining()){
+    		int n = Math.min(chunk.length, src.remaining());
+    		src.get(chunk, 0, n);
+    		out.write(chunk, 0, n);
+    	}
     }
 
 	/**
 	 * expByte() method converts integer to 12-bit binary string representation.
-	 * Utilized for LZW compression algorithm.
+	 * No longer used by the codec (see BitWriter); kept for display and testing.
 	 */
     public String expByte(int i){
 		String output = String.format("%8s", Integer.toBinaryString(i)).replace(' ', '0');
@@ -335,47 +747,137 @@ public class LZWCompression {
 	}
 
 	/**
-	 * unexpByte() method returns 12-bit binary string representation based on two 8-bit (single byte) sequences.
-	 * Byte firstbyte: first byte represented in 12-bit binary string (8-bit).
-	 * Byte secondbyte: second byte represented in 12-bit binary string (8-bit).
+	 * unexpByte() method returns 12-bit value based on two 8-bit (single byte) sequences.
+	 * Byte firstbyte: first byte represented in 12-bit value (8-bit).
+	 * Byte secondbyte: second byte represented in 12-bit value (8-bit).
 	 * Boolean first: utilized to determine which 12 bits to use from 16-bit (2-byte) sequence.
-	 * Utilized for LZW decompression algorithm.
+	 * Utilized for LZW decompression algorithm (see BitReader for the streaming equivalent).
 	 */
     public int unexpByte(byte firstbyte, byte secondbyte, boolean first){
+		int pair = ((firstbyte & 0xFF) << 8) | (secondbyte & 0xFF);
 		
-    	String num1 = String.format("%8s", Integer.toBinaryString(firstbyte)).replace(' ', '0');
-		String num2 = String.format("%8s", Integer.toBinaryString(secondbyte)).replace(' ', '0');
+		if(first){
+			return pair >>> 4;
+		} else { 
+			return pair & 0xFFF;
+		}
+    }
+
+	/**
+	 * train() method trains a SharedDictionary from the lines (records) of a sample file and writes it to output,
+	 * for use with setDictionary() or the -D option.
+	 * String input: sample file, eg, a CSV file of the records to be compressed
+	 * String output: dictionary file
+	 * Int entries: largest number of trained entries (eg, SharedDictionary.DEFAULT_ENTRIES)
+	 */
+    public static void train(String input, String output, int entries){
+    	try{
+    		byte[] sample = Files.readAllBytes(Paths.get(input));
+    		List<byte[]> records = new ArrayList<byte[]>();
+    		int start = 0;
+    		for(int i = 0; i < sample.length; i++){
+    			if(sample[i] == '\n' || i == sample.length - 1){
+    				records.add(Arrays.copyOfRange(sample, start, i + 1));
+    				start = i + 1;
+    			}
+    		}
+    		SharedDictionary dictionary = SharedDictionary.train(records, entries);
+    		dictionary.save(output);
+    		System.out.println("Trained " + dictionary.size() + " entries, dictionary id "
+    				+ Integer.toHexString(dictionary.id()));
+    	} catch(IOException e){
+			e.printStackTrace();
+		}
+    }
 
-		//use only number bits if sign extended
-		if(num1.length() > 8){
-			num1 = num1.substring(num1.length() - 8,num1.length());
+	/**
+	 * withOptions() method creates an LZWCompression configured from command line options.
+	 * String[] args: command line arguments.
+	 * Int start: index of first option in args.
+	 * Options: dictionary type (array, hash, treemap, hashmap or offheap), -w maxwidth for variable-width codes and
+	 * -r policy (never, on_full or adaptive) for table resets, -b blocksize for blocks with stored fallback and
+	 * -t threads for blocks compressed or decompressed in parallel, -D file for a trained dictionary (see train()) and
+	 * -k to skip corrupt blocks when decompressing, -p to read and write files on their own threads, -m to print
+	 * CompressionStats of the run, -f for flexible parsing, -e policy (compress, store or skip) for input predicted
+	 * to expand and -c bytes to checkpoint every bytes of input so an interrupted compression resumes.
+	 */
+	public static LZWCompression withOptions(String[] args, int start){
+		DictionaryType type = DictionaryType.HASH;
+		int maxwidth = 0;
+		int blocksize = 0;
+		int threads = 1;
+		ResetPolicy policy = null;
+		SharedDictionary dictionary = null;
+		boolean skipcorrupt = false;
+		boolean pipelined = false;
+		boolean metrics = false;
+		boolean flexible = false;
+		ExpansionPolicy expansion = ExpansionPolicy.COMPRESS;
+		long checkpoint = 0;
+		for(int i = start; i < args.length; i++){
+			if(args[i].equals("-w") && i + 1 < args.length){
+				maxwidth = Integer.parseInt(args[++i]);
+			} else if(args[i].equals("-r") && i + 1 < args.length){
+				policy = ResetPolicy.valueOf(args[++i].toUpperCase());
+			} else if(args[i].equals("-b") && i + 1 < args.length){
+				blocksize = Integer.parseInt(args[++i]);
+			} else if(args[i].equals("-t") && i + 1 < args.length){
+				threads = Integer.parseInt(args[++i]);
+			} else if(args[i].equals("-k")){
+				skipcorrupt = true;
+			} else if(args[i].equals("-p")){
+				pipelined = true;
+			} else if(args[i].equals("-m")){
+				metrics = true;
+			} else if(args[i].equals("-f")){
+				flexible = true;
+			} else if(args[i].equals("-e") && i + 1 < args.length){
+				expansion = ExpansionPolicy.valueOf(args[++i].toUpperCase());
+			} else if(args[i].equals("-c") && i + 1 < args.length){
+				checkpoint = Long.parseLong(args[++i]);
+			} else if(args[i].equals("-D") && i + 1 < args.length){
+				try{
+					dictionary = SharedDictionary.open(args[++i]);
+				} catch(IOException e){
+					throw new UncheckedIOException(e);
+				}
+			} else {
+				type = DictionaryType.valueOf(args[i].toUpperCase());
+			}
 		}
-		
-		if(num2.length() > 8){
-			num2 = num2.substring(num2.length() - 8, num2.length());
+		LZWCompression newCompress = new LZWCompression(type);
+		if(maxwidth > 0){
+			newCompress.setMaxCodeWidth(maxwidth);
 		}
-		
-		//for testing
-		//System.out.println(num1);
-		//System.out.println(num2);
-		
-		int outval;
-		
-		if(first){
-			outval = Integer.parseInt(num1.substring(0,8) + num2.substring(0,4),2);
-		} else { 
-			outval = Integer.parseInt(num1.substring(4,8) + num2.substring(0,8),2);
+		if(policy != null){
+			newCompress.setResetPolicy(policy);
 		}
-    	return outval;
-    	}
+		if(blocksize > 0){
+			newCompress.setBlockSize(blocksize);
+		}
+		newCompress.setThreads(threads);
+		newCompress.setDictionary(dictionary);
+		newCompress.setSkipCorrupt(skipcorrupt);
+		newCompress.setPipelined(pipelined);
+		newCompress.setFlexibleParsing(flexible);
+		newCompress.setExpansionPolicy(expansion);
+		newCompress.setCheckpointInterval(checkpoint);
+		if(metrics){
+			newCompress.setListener(stats -> System.out.println(stats));
+		}
+		return newCompress;
+	}
 
 	/**
 	 * main() method of program.
 	 * Can be executed from command line utilizing syntax:
-	 * java LZWCompression c input.txt output.txt OR
-	 * java LZWComrpession d input.txt output.txt
+	 * java LZWCompression c input.txt output.txt [array|hash|treemap|hashmap|offheap] [-w 12-16] [-r policy] [-b bytes] [-t threads] [-D dictionary] [-p] [-m] [-f] [-e compress|store|skip] [-c bytes] OR
+	 * java LZWComrpession d input.txt output.txt [offheap] [-t threads] [-D dictionary] [-k] [-p] [-m] OR
+	 * java LZWCompression e input.txt [compression options] OR
+	 * java LZWCompression t sample.csv output.dict [entries] OR
+	 * java LZWCompression r input.lzw output.txt offset length [-D dictionary]
 	 * Can also be run from standard Java IDE
-	 * Outputs time taken so as to compare between data structures (HashMap or TreeMap).
+	 * Outputs time taken so as to compare between data structures (see DictionaryType).
 	 */
 	public static void main(String[] args) {
 		
@@ -413,7 +915,7 @@ public class LZWCompression {
 			}
 		} else {
 			if(args[0].equals("c")){
-				LZWCompression newCompress = new LZWCompression();
+				LZWCompression newCompress = LZWCompression.withOptions(args, 3);
 				System.out.println("Compressing " + args[1] + " to " + args[2]);
 				long startTime = System.nanoTime();
 				newCompress.LZWCompress(args[1], args[2]);
@@ -421,13 +923,36 @@ public class LZWCompression {
 				long totalTime = endTime - startTime;
 				System.out.println("Runtime in seconds for algorithm: " + totalTime/1000000000.0);
 			} else if(args[0].equals("d")){
-				LZWCompression newCompress = new LZWCompression();
+				LZWCompression newCompress = LZWCompression.withOptions(args, 3);
 				System.out.println("Decompressing " + args[1] + " to " + args[2]);
 				long startTime = System.nanoTime();
 				newCompress.LZWDecompress(args[1], args[2]);
 				long endTime   = System.nanoTime();
 				long totalTime = endTime - startTime;
 				System.out.println("Runtime in seconds for algorithm: " + totalTime/1000000000.0);
+			} else if(args[0].equals("r")){
+				LZWCompression newCompress = LZWCompression.withOptions(args, 5);
+				System.out.println("Reading " + args[4] + " bytes at " + args[3] + " of " + args[1] + " to " + args[2]);
+				long startTime = System.nanoTime();
+				try(OutputStream out = new FileOutputStream(args[2])){
+					out.write(newCompress.readRange(args[1], Long.parseLong(args[3]), Integer.parseInt(args[4])));
+				} catch(IOException e){
+					e.printStackTrace();
+				}
+				long endTime   = System.nanoTime();
+				long totalTime = endTime - startTime;
+				System.out.println("Runtime in seconds for algorithm: " + totalTime/1000000000.0);
+			} else if(args[0].equals("e")){
+				LZWCompression newCompress = LZWCompression.withOptions(args, 2);
+				try{
+					System.out.println("Estimate of " + args[1] + ": " + newCompress.estimate(args[1]));
+				} catch(IOException e){
+					e.printStackTrace();
+				}
+			} else if(args[0].equals("t")){
+				System.out.println("Training dictionary " + args[2] + " from " + args[1]);
+				LZWCompression.train(args[1], args[2],
+						args.length > 3 ? Integer.parseInt(args[3]) : SharedDictionary.DEFAULT_ENTRIES);
 			} else {
 				System.out.println("Invalid command.  Please enter either c for compress or d for decompress.");
 			}
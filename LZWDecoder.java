@@ -0,0 +1,296 @@
+import java.io.*;
+
+/**
+ * LZWDecoder class runs the LZW Decompression Algorithm incrementally.  Codewords are read from a BitReader and the
+ * decoded strings are written into a reusable output buffer, which callers drain with read() or transferTo().  State
+ * (prior codeword, next table index) is kept between calls, so compressed input never has to be held in memory as a
+ * whole.  One LZWDecoder is used per stream or block, and can be reused by calling start() again.
+ */
+public class LZWDecoder {
+
+	/**
+	 * LZWDecoder class instance variables
+	 * DecodeDictionary decomp = prefix/suffix table with capacity of at least 2^maxwidth codes
+	 * int maxwidth = largest code width
+	 * boolean variablewidth = codes grow from 9 bits to maxwidth (true) or are always maxwidth bits (false)
+	 * ResetPolicy policy = when the table starts over
+	 * int maxcode = number of codes in table
+	 * int firstcode = first code entered after a reset (257 when CLEAR_CODE is reserved)
+	 * BitReader in = source of codewords
+	 * int index = next code to enter into table
+	 * int priorkey = prior codeword, -1 before first codeword and after CLEAR_CODE
+	 * int priorfirst = first byte of string(priorcodeword)
+	 * int pending = codeword read but not yet decoded (did not fit in buffer), -1 if none
+	 * boolean done = no more codewords in input
+	 * byte[] buffer = decoded bytes, pos - limit not yet delivered
+	 * SharedDictionary dictionary = trained entries kept across every reset, null for none
+	 * int base = next code after trained entries
+	 * CompressionStats stats = receives counts below at end of input, null for none
+	 * long decoded = bytes decoded since start()
+	 * long phrases = codewords decoded to strings since start()
+	 * long clears = CLEAR codewords read since start()
+	 * long resets = table resets since start()
+	 */
+	private DecodeDictionary decomp;
+	private int maxwidth;
+	private boolean variablewidth;
+	private ResetPolicy policy;
+	private int maxcode;
+	private int firstcode;
+	private BitReader in;
+	private int index;
+	private int priorkey;
+	private int priorfirst;
+	private int pending;
+	private boolean done;
+	private byte[] buffer = new byte[65536];
+	private int pos;
+	private int limit;
+	private SharedDictionary dictionary;
+	private int base;
+	private CompressionStats stats;
+	private long decoded;
+	private long phrases;
+	private long clears;
+	private long resets;
+
+	/**
+	 * LZWDecoder() constructor.
+	 * DecodeDictionary decomp: decompression table with capacity of at least 2^maxwidth codes.
+	 * Int maxwidth: largest code width.
+	 * Boolean variablewidth: codes grow from 9 bits to maxwidth (true) or are always maxwidth bits (false).
+	 * ResetPolicy policy: when the table starts over.
+	 */
+	public LZWDecoder(DecodeDictionary decomp, int maxwidth, boolean variablewidth, ResetPolicy policy){
+		this.decomp = decomp;
+		this.maxwidth = maxwidth;
+		this.variablewidth = variablewidth;
+		this.policy = policy;
+		maxcode = 1 << maxwidth;
+		firstcode = policy == ResetPolicy.ADAPTIVE ? LZWCompression.CLEAR_CODE + 1 : LZWCompression.FIRST_CODE;
+	}
+
+	/**
+	 * setDictionary() method loads trained entries into the table.  Codes below the first code after them are never
+	 * entered again, so they are kept across every reset.
+	 * SharedDictionary dictionary: trained entries the input was compressed with, or null for none.
+	 */
+	public void setDictionary(SharedDictionary dictionary){
+		if(dictionary != null && firstcode + dictionary.size() >= maxcode){
+			throw new IllegalArgumentException("Dictionary of " + dictionary.size() + " entries does not fit "
+					+ maxwidth + "-bit codes");
+		}
+		if(dictionary != null && dictionary != this.dictionary){
+			base = dictionary.load(decomp, firstcode);
+		}
+		this.dictionary = dictionary;
+	}
+
+	/**
+	 * setStats() method selects where the counts of each stream or block are added when its input ends.
+	 * CompressionStats stats: run statistics, or null to count nothing.
+	 */
+	public void setStats(CompressionStats stats){
+		this.stats = stats;
+	}
+
+	/**
+	 * start() method begins a new stream or block with a fresh table.
+	 * BitReader in: source of codewords.
+	 */
+	public void start(BitReader in){
+		this.in = in;
+		index = preset();
+		priorkey = -1;
+		priorfirst = -1;
+		pending = -1;
+		done = false;
+		pos = 0;
+		limit = 0;
+		decoded = 0;
+		phrases = 0;
+		clears = 0;
+		resets = 0;
+	}
+
+	/**
+	 * createArray() method resets the decompression table in place to prevent code overflow.
+	 */
+	public DecodeDictionary createArray(){
+		decomp.reset();
+		return decomp;
+	}
+
+	/**
+	 * preset() method resets the table, keeping the trained entries if any.
+	 * Post-Condition: returns next code to enter into table.
+	 */
+	private int preset(){
+		createArray();
+		return dictionary == null ? firstcode : base;
+	}
+
+	/**
+	 * read() method copies up to len decoded bytes into b.
+	 * Post-Condition: returns number of bytes copied, or -1 at end of input.
+	 */
+	public int read(byte[] b, int off, int len) throws IOException {
+		if(pos == limit && !fill()){
+			return -1;
+		}
+		int n = Math.min(len, limit - pos);
+		System.arraycopy(buffer, pos, b, off, n);
+		pos += n;
+		return n;
+	}
+
+	/**
+	 * transferTo() method decodes all remaining input and writes it to out in bulk.
+	 * Post-Condition: returns number of bytes written.
+	 */
+	public long transferTo(OutputStream out) throws IOException {
+		long total = 0;
+		while(pos < limit || fill()){
+			out.write(buffer, pos, limit - pos);
+			total += limit - pos;
+			pos = limit;
+		}
+		return total;
+	}
+
+	/**
+	 * fill() method decodes codewords into buffer until it is full or input ends.
+	 * Post-Condition: returns false if no bytes were decoded.
+	 */
+	private boolean fill() throws IOException {
+		pos = 0;
+		limit = 0;
+		while(decode()){
+		}
+		decoded += limit;
+		return limit > 0;
+	}
+
+	/**
+	 * decode() method decodes one codeword into buffer.
+	 * Post-Condition: returns false if input ended or buffer is too full for the next string.
+	 */
+	private boolean decode() throws IOException {
+		int currkey = pending;
+		pending = -1;
+
+		while(currkey < 0){
+			if(done){
+				return false;
+			}
+
+			//reset to prevent overflow (ON_FULL), other policies keep the full table
+			//string(priorcodeword) stays readable until its code is reused
+			if(index == maxcode && priorkey >= 0 && policy == ResetPolicy.ON_FULL){
+				index = preset();
+				resets++;
+			}
+
+			//compressor wrote codeword after entering one more string than this table holds
+			int count = priorkey < 0 ? index : Math.min(index + 1, maxcode);
+			currkey = in.read(variablewidth ? LZWCompression.codeWidth(count) : maxwidth);
+			if(currkey < 0){
+				done = true;
+				if(stats != null){
+					//bytes of this fill() are not yet counted in decoded
+					stats.decoded(decoded + limit, phrases, clears, resets);
+				}
+				return false;
+			}
+
+			//reset on CLEAR code, next codeword starts over like the first
+			if(currkey == LZWCompression.CLEAR_CODE && policy == ResetPolicy.ADAPTIVE){
+				index = preset();
+				priorkey = -1;
+				currkey = -1;
+				clears++;
+				resets++;
+			}
+		}
+
+		if(priorkey < 0){
+			//prior codeword, output corresponding value (single byte, or trained entry of a SharedDictionary)
+			if(currkey >= LZWCompression.FIRST_CODE){
+				if(currkey >= index){
+					throw new IOException("Invalid first codeword " + currkey);
+				}
+				int length = decomp.length(currkey);
+				if(limit + length > buffer.length){
+					pending = currkey;
+					return false;
+				}
+				decomp.write(currkey, buffer, limit);
+				priorfirst = buffer[limit] & 0xFF;
+				limit += length;
+				priorkey = currkey;
+				phrases++;
+				return true;
+			}
+			if(limit == buffer.length){
+				pending = currkey;
+				return false;
+			}
+			buffer[limit++] = (byte) currkey;
+			priorkey = currkey;
+			priorfirst = currkey;
+			phrases++;
+			return true;
+		}
+
+		boolean full = index == maxcode;
+		if(currkey > index || (currkey == index && full)){
+			throw new IOException("Invalid codeword " + currkey + " at table index " + index);
+		}
+
+		//make room in output buffer for string(codeword)
+		int length = currkey == index ? decomp.length(priorkey) + 1 : decomp.length(currkey);
+		if(limit + length > buffer.length){
+			if(limit > 0){
+				pending = currkey;
+				return false;
+			}
+			buffer = new byte[length * 2];
+		}
+
+		int first;
+		if(currkey == index){
+			//enter string (priorcodeword) + firstchar(string(priorcodeword)) into table
+			first = priorfirst;
+			decomp.add(priorkey, first, index);
+
+			//output string(priorcodeword) + firstchar(string(priorcodeword))
+			decomp.write(currkey, buffer, limit);
+		} else {
+			//output string associated with codeword
+			decomp.write(currkey, buffer, limit);
+			first = buffer[limit] & 0xFF;
+
+			//enter string (priorcodeword) + firstchar(string(codeword)) into table
+			if(!full){
+				decomp.add(priorkey, first, index);
+			}
+		}
+		limit += length;
+		if(!full){
+			index += 1;
+		}
+
+		//priorcodeword = codeword
+		priorkey = currkey;
+		priorfirst = first;
+		phrases++;
+		return true;
+	}
+
+	/**
+	 * close() method releases the table (see DecodeDictionary.close()).  The decoder must not be used afterwards.
+	 */
+	public void close(){
+		decomp.close();
+	}
+}
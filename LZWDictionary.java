@@ -0,0 +1,48 @@
+/**
+ * LZWDictionary interface describes the compression table used by LZWCompression.  Each entry is keyed by the code of
+ * the current prefix string and the next input byte (0 - 255), so no String needs to be built for every input byte.
+ * Codes 0 - 255 are implicit single-byte entries and are never stored; codes from 256 upward are entered with add().
+ * Implementations are selected through DictionaryType.
+ */
+public interface LZWDictionary {
+
+	/**
+	 * lookup() method returns the code entered for prefix code + next byte.
+	 * Int prefix: code of current string s.
+	 * Int next: next input byte c (0 - 255).
+	 * Post-Condition: returns code of s + c, or -1 if s + c is not in the table.
+	 */
+	int lookup(int prefix, int next);
+
+	/**
+	 * add() method enters prefix code + next byte into the table under the given code.
+	 * Int prefix: code of current string s.
+	 * Int next: next input byte c (0 - 255).
+	 * Int code: code assigned to s + c.
+	 * Pre-Condition: codes are added in increasing order starting at 256 after each reset().
+	 */
+	void add(int prefix, int next, int code);
+
+	/**
+	 * reset() method clears all entries added since mark(), or all entries above 255 if mark() has not been called.
+	 */
+	void reset();
+
+	/**
+	 * mark() method keeps all current entries (eg, trained entries of a SharedDictionary) across later reset() calls,
+	 * so they need not be entered again after every reset.
+	 */
+	void mark();
+
+	/**
+	 * clear() method clears all entries above 255, including marked ones, and forgets the mark.
+	 */
+	void clear();
+
+	/**
+	 * close() method releases memory held outside the heap (see OffHeapDictionary).  Heap tables hold none, so by
+	 * default it does nothing.  The table must not be used afterwards.
+	 */
+	default void close(){
+	}
+}
@@ -0,0 +1,510 @@
+import java.io.*;
+import java.util.zip.Checksum;
+
+/**
+ * LZWEncoder class runs the LZW Compression Algorithm incrementally.  Input is fed in byte[] chunks through encode()
+ * and codewords are written to a BitWriter as soon as they are known; state (current string s, next table index,
+ * ratio window) is kept between calls, so input never has to be held in memory as a whole.  One LZWEncoder is used
+ * per stream or block, and can be reused by calling start() again.
+ *
+ * With flexible parsing (LZW-FP) the current string is not always extended as far as the table allows: of every
+ * prefix of the longest match, the one whose following match reaches furthest is written, so two phrases together
+ * cover as much input as possible.  A shorter prefix only wins by SPLIT_GAIN bytes or more, since the string it enters
+ * into the table duplicates one already there.  The table is still updated with string(codeword) + first byte of the
+ * next string, the same rule LZWDecoder applies, so output decodes unchanged.  Lookahead needs input beyond the
+ * current phrase, so input is held back until the phrases covering it are known.
+ *
+ * Right after the table starts over, the state of the encoder is small enough to save as a Checkpoint (see
+ * setCheckpoints()), and resume() continues a stream from one.
+ */
+public class LZWEncoder {
+
+	/**
+	 * LZWEncoder class constants
+	 * SPLIT_GAIN = bytes a shorter split must reach beyond the longest match to be chosen by flexible parsing; a
+	 * shorter split uses up a code on a string the table already holds, so it must save more than that lost entry
+	 * SPLIT_WINDOW = most bytes a split may end before the longest match, bounds the lookups per phrase on long matches
+	 */
+	public static final int SPLIT_GAIN = 2;
+	public static final int SPLIT_WINDOW = 16;
+
+	/**
+	 * LZWEncoder class instance variables
+	 * LZWDictionary table = compression table keyed by (prefix code, next byte)
+	 * int maxwidth = largest code width, table holds 2^maxwidth codes
+	 * boolean variablewidth = codes grow from 9 bits to maxwidth (true) or are always maxwidth bits (false)
+	 * ResetPolicy policy = when the table starts over
+	 * int maxcode = number of codes in table
+	 * int firstcode = first code entered after a reset (257 when CLEAR_CODE is reserved)
+	 * BitWriter out = destination of codewords
+	 * int index = next code to enter into table
+	 * int s = code of current string, -1 before first byte
+	 * long bytesin = input bytes encoded so far
+	 * long bitsout = codeword bits written so far
+	 * RatioMonitor monitor = compression ratio tracking for ADAPTIVE policy
+	 * SharedDictionary dictionary = trained entries kept across every reset, null for none
+	 * int base = next code after trained entries
+	 * CompressionStats stats = receives counts below at finish(), null for none
+	 * long phrases = codewords written for strings of input since start()
+	 * long clears = CLEAR codewords written since start()
+	 * long resets = table resets since start()
+	 * long lookups = table lookups by flexible parsing since start() or resume() (greedy lookups follow from bytesin)
+	 * long hits = lookups by flexible parsing that found the extended string
+	 * boolean flexible = strings are chosen by flexible parsing instead of greedily
+	 * byte[] ahead = input held back for flexible parsing, apos - alim not yet written
+	 * long aheadoffset = input offset of ahead[0] since start()
+	 * int[] prefixes = code of every prefix of the longest match at the current position (flexible parsing)
+	 * CheckpointListener checkpoints = receives a Checkpoint at the first reset after every interval bytes, null for
+	 * none
+	 * long interval = input bytes between checkpoints
+	 * long header = output bytes before the first codeword
+	 * long nextcheckpoint = input offset after which the next reset is checkpointed
+	 * Checksum fingerprint = receives input as it is consumed, so it covers the input before each checkpoint, null for
+	 * none
+	 * long summed = input bytes added to fingerprint
+	 * byte[] chunk = input of the current encode() call (greedy parsing), chunkoff its first byte
+	 */
+	private LZWDictionary table;
+	private int maxwidth;
+	private boolean variablewidth;
+	private ResetPolicy policy;
+	private int maxcode;
+	private int firstcode;
+	private BitWriter out;
+	private int index;
+	private int s;
+	private long bytesin;
+	private long bitsout;
+	private RatioMonitor monitor = new RatioMonitor();
+	private SharedDictionary dictionary;
+	private int base;
+	private CompressionStats stats;
+	private long phrases;
+	private long clears;
+	private long resets;
+	private long lookups;
+	private long hits;
+	private boolean flexible;
+	private byte[] ahead;
+	private int apos;
+	private int alim;
+	private long aheadoffset;
+	private int[] prefixes;
+	private CheckpointListener checkpoints;
+	private long interval;
+	private long header;
+	private long nextcheckpoint;
+	private Checksum fingerprint;
+	private long summed;
+	private byte[] chunk;
+	private int chunkoff;
+
+	/**
+	 * LZWEncoder() constructor.
+	 * LZWDictionary table: compression table with capacity of at least 2^maxwidth codes.
+	 * Int maxwidth: largest code width.
+	 * Boolean variablewidth: codes grow from 9 bits to maxwidth (true) or are always maxwidth bits (false).
+	 * ResetPolicy policy: when the table starts over.
+	 */
+	public LZWEncoder(LZWDictionary table, int maxwidth, boolean variablewidth, ResetPolicy policy){
+		this.table = table;
+		this.maxwidth = maxwidth;
+		this.variablewidth = variablewidth;
+		this.policy = policy;
+		maxcode = 1 << maxwidth;
+		firstcode = policy == ResetPolicy.ADAPTIVE ? LZWCompression.CLEAR_CODE + 1 : LZWCompression.FIRST_CODE;
+	}
+
+	/**
+	 * setDictionary() method loads trained entries into the table and keeps them across every reset (see
+	 * LZWDictionary.mark()).
+	 * SharedDictionary dictionary: trained entries, or null for the 256 single-byte entries alone.
+	 */
+	public void setDictionary(SharedDictionary dictionary){
+		if(dictionary != null && firstcode + dictionary.size() >= maxcode){
+			throw new IllegalArgumentException("Dictionary of " + dictionary.size() + " entries does not fit "
+					+ maxwidth + "-bit codes");
+		}
+		this.dictionary = dictionary;
+		table.clear();
+		base = firstcode;
+		if(dictionary != null){
+			base = dictionary.load(table, firstcode);
+			table.mark();
+		}
+	}
+
+	/**
+	 * setStats() method selects where the counts of each stream or block are added when it is finished.
+	 * CompressionStats stats: run statistics, or null to count nothing.
+	 */
+	public void setStats(CompressionStats stats){
+		this.stats = stats;
+	}
+
+	/**
+	 * setFlexibleParsing() method selects flexible parsing (true) or greedy parsing (false, the default).  Flexible
+	 * parsing writes fewer codewords on most text and records at the cost of several lookups per input byte.
+	 */
+	public void setFlexibleParsing(boolean flexible){
+		this.flexible = flexible;
+	}
+
+	/**
+	 * setCheckpoints() method selects who receives a Checkpoint at the first table reset (ON_FULL overflow or ADAPTIVE
+	 * CLEAR) after every interval bytes of input.  Before the listener is called, every complete byte is drained from
+	 * the BitWriter and its OutputStream is flushed.  Under NEVER the table is never reset, so nothing is checkpointed.
+	 * Long interval: input bytes between checkpoints.
+	 * Long header: output bytes written before the first codeword (eg, 3 for an "LZ" header).
+	 * CheckpointListener checkpoints: receives checkpoints, or null for none.
+	 * Checksum fingerprint: receives every input byte before the input() of a checkpoint when the listener is called
+	 * (see Checkpoint.fingerprint()), or null for none.  On resume() it must already hold the bytes before it.
+	 */
+	public void setCheckpoints(long interval, long header, CheckpointListener checkpoints, Checksum fingerprint){
+		this.interval = interval;
+		this.header = header;
+		this.checkpoints = checkpoints;
+		this.fingerprint = fingerprint;
+	}
+
+	/**
+	 * start() method begins a new stream or block with a fresh table.
+	 * BitWriter out: destination of codewords.
+	 */
+	public void start(BitWriter out){
+		this.out = out;
+		index = preset();
+		s = -1;
+		bytesin = 0;
+		bitsout = 0;
+		phrases = 0;
+		clears = 0;
+		resets = 0;
+		lookups = 0;
+		hits = 0;
+		apos = 0;
+		alim = 0;
+		aheadoffset = 0;
+		monitor.reset(0, 0);
+		nextcheckpoint = interval;
+		summed = 0;
+	}
+
+	/**
+	 * resume() method continues a stream from a checkpoint taken with the same settings and dictionary, so the
+	 * codewords that follow are the ones an uninterrupted run writes.  Input must continue from checkpoint.input(), and
+	 * out must write after the first checkpoint.output() bytes of the stream.
+	 * BitWriter out: destination of codewords, with nothing written yet.
+	 * Checkpoint checkpoint: state after a table reset (see setCheckpoints()).
+	 */
+	public void resume(BitWriter out, Checkpoint checkpoint){
+		start(out);
+		out.restore(checkpoint.pending(), checkpoint.count());
+		index = checkpoint.index();
+		if(checkpoint.carry() >= 0){
+			table.add(checkpoint.carry(), checkpoint.first(), index - 1);
+		}
+		bytesin = checkpoint.input();
+		bitsout = checkpoint.bitsout();
+		phrases = checkpoint.phrases();
+		clears = checkpoint.clears();
+		resets = checkpoint.resets();
+		aheadoffset = checkpoint.input();
+		monitor.reset(checkpoint.input() + 1, bitsout);
+		nextcheckpoint = checkpoint.input() + interval;
+		summed = checkpoint.input();
+	}
+
+	/**
+	 * createTable() method resets the table in place to its 256 single-byte entries (plus trained entries, see
+	 * setDictionary()) to prevent code overflow.
+	 */
+	public LZWDictionary createTable(){
+		table.reset();
+		return table;
+	}
+
+	/**
+	 * preset() method resets the table, keeping the trained entries if any.
+	 * Post-Condition: returns next code to enter into table.
+	 */
+	private int preset(){
+		createTable();
+		return dictionary == null ? firstcode : base;
+	}
+
+	/**
+	 * encode() method compresses the next len bytes of input.
+	 * Byte[] b: input bytes.
+	 * Int off: first input byte in b.
+	 * Int len: number of input bytes.
+	 */
+	public void encode(byte[] b, int off, int len) throws IOException {
+		if(flexible){
+			hold(b, off, len);
+			bytesin += len;
+			parse(false);
+			return;
+		}
+		int end = off + len;
+		int i = off;
+		chunk = b;
+		chunkoff = off;
+
+		//read(first character from w into string s)
+		if(s < 0 && i < end){
+			s = b[i++] & 0xFF;
+		}
+
+		for(; i < end; i++){
+			//read character c
+			int c = b[i] & 0xFF;
+
+			//if s+c in table
+			int next = table.lookup(s, c);
+			if(next >= 0){
+				//s = s + c
+				s = next;
+				continue;
+			}
+
+			//output codeword, enter s + c into table
+			phrase(s, c, bytesin + (i - off) + 1, false);
+
+			//s = c
+			s = c;
+		}
+		sum(bytesin + len);
+		chunk = null;
+		bytesin += len;
+	}
+
+	/**
+	 * phrase() method outputs the codeword of string s and enters s + c into table.
+	 * Int code: code of string s.
+	 * Int c: next input byte, first byte of the next string.
+	 * Long consumed: input bytes read up to and including c.
+	 * Boolean split: s is a shorter prefix of the longest match (flexible parsing), so s + c may already be in table.
+	 */
+	private void phrase(int code, int c, long consumed, boolean split) throws IOException {
+		//output codeword (12-bit codewords are two per 3 bytes)
+		int width = variablewidth ? LZWCompression.codeWidth(index) : maxwidth;
+		out.write(code, width);
+		bitsout += width;
+		phrases++;
+
+		//enter s + c into table
+		//if overflow, create new table (ON_FULL) or keep full table (NEVER, ADAPTIVE)
+		if(index < maxcode){
+			enter(code, c, split);
+		} else if(policy == ResetPolicy.ON_FULL){
+			index = preset();
+			resets++;
+			checkpoint(enter(code, c, split) ? code : -1, c, consumed);
+		}
+
+		//if table has gone stale, tell decompressor to reset with CLEAR code
+		if(policy == ResetPolicy.ADAPTIVE && monitor.degraded(consumed, bitsout)){
+			width = LZWCompression.codeWidth(index);
+			out.write(LZWCompression.CLEAR_CODE, width);
+			bitsout += width;
+			index = preset();
+			clears++;
+			resets++;
+			monitor.reset(consumed, bitsout);
+			checkpoint(-1, c, consumed);
+		}
+	}
+
+	/**
+	 * enter() method enters s + c into table under the next code.  Under flexible parsing some entries are left out
+	 * and their code goes unused (the decompressor defines it, but it is never written), so every dictionary type
+	 * holds the same strings: a split s + c already in table, which entered twice would replace the entry (and its
+	 * children) in some types and not others, and s + c of a code s carried over a reset, which only MapDictionary
+	 * enters and which its string keys could match again.
+	 * Post-Condition: returns whether s + c was entered.
+	 */
+	private boolean enter(int code, int c, boolean split){
+		boolean entered = true;
+		if(flexible && code >= index){
+			entered = false;
+		} else if(split){
+			entered = table.lookup(code, c) < 0;
+			lookups++;
+			hits += entered ? 0 : 1;
+		}
+		if(entered){
+			table.add(code, c, index);
+		}
+		index += 1;
+		return entered;
+	}
+
+	/**
+	 * checkpoint() method hands a Checkpoint to the listener right after a table reset, if interval bytes of input have
+	 * passed since the last one.  The next phrase starts with byte c.
+	 * Int carry: code entered into the fresh table with c, -1 if none.
+	 * Long consumed: input bytes read up to and including c.
+	 */
+	private void checkpoint(int carry, int c, long consumed) throws IOException {
+		if(checkpoints == null || consumed - 1 < nextcheckpoint){
+			return;
+		}
+		nextcheckpoint = consumed - 1 + interval;
+		sum(consumed - 1);
+		out.drain();
+		checkpoints.checkpoint(new Checkpoint(consumed - 1, header + (bitsout >>> 3), out.pending(),
+				out.pendingCount(), index, carry, c, bitsout, phrases, clears, resets));
+	}
+
+	/**
+	 * hold() method appends input to the bytes held back for flexible parsing.
+	 */
+	private void hold(byte[] b, int off, int len){
+		if(ahead == null){
+			ahead = new byte[Math.max(65536, len)];
+			prefixes = new int[maxcode + 1];
+		}
+		if(alim + len > ahead.length){
+			//drop bytes already written, grow if the rest still does not fit
+			sum(aheadoffset + apos);
+			byte[] target = alim - apos + len > ahead.length ? new byte[Math.max(ahead.length * 2, alim - apos + len)]
+					: ahead;
+			System.arraycopy(ahead, apos, target, 0, alim - apos);
+			ahead = target;
+			aheadoffset += apos;
+			alim -= apos;
+			apos = 0;
+		}
+		System.arraycopy(b, off, ahead, alim, len);
+		alim += len;
+	}
+
+	/**
+	 * sum() method adds the input before offset to the fingerprint, if any.  The bytes are still held: in ahead under
+	 * flexible parsing, in the chunk being encoded otherwise.
+	 * Long offset: input offset, at least the input encoded before the current encode() call.
+	 */
+	private void sum(long offset){
+		if(fingerprint == null || offset <= summed){
+			return;
+		}
+		if(flexible){
+			fingerprint.update(ahead, (int) (summed - aheadoffset), (int) (offset - summed));
+		} else {
+			fingerprint.update(chunk, chunkoff + (int) (summed - bytesin), (int) (offset - summed));
+		}
+		summed = offset;
+	}
+
+	/**
+	 * parse() method writes the phrases of held input by flexible parsing: at each position, of every prefix of the
+	 * longest match (down to SPLIT_WINDOW bytes shorter), the one followed by the longest next match is written (the
+	 * longest match itself unless a shorter prefix reaches SPLIT_GAIN bytes further).
+	 * Boolean last: no more input follows, so matches may end at the end of held input.
+	 */
+	private void parse(boolean last) throws IOException {
+		int i = apos;
+		while(i < alim){
+			//longest match at i, and the code of each of its prefixes
+			int longest = match(i, true, last);
+			if(longest < 0){
+				break;
+			}
+			if(i + longest == alim){
+				//last phrase of input
+				int width = variablewidth ? LZWCompression.codeWidth(index) : maxwidth;
+				out.write(prefixes[longest], width);
+				bitsout += width;
+				phrases++;
+				i = alim;
+				break;
+			}
+
+			//split that lets the next phrase reach furthest, the longest match unless a shorter one gains SPLIT_GAIN
+			int best = longest;
+			int reach = 0;
+			for(int k = longest; k >= Math.max(1, longest - SPLIT_WINDOW) && longest > 1; k--){
+				int next = match(i + k, false, last);
+				if(next < 0){
+					best = -1;
+					break;
+				}
+				int gain = k + next - (k == longest ? 0 : SPLIT_GAIN);
+				if(gain > reach){
+					reach = gain;
+					best = k;
+				}
+			}
+			if(best < 0){
+				//lookahead needs more input
+				break;
+			}
+			phrase(prefixes[best], ahead[i + best] & 0xFF, aheadoffset + i + best + 1, best < longest);
+			i += best;
+		}
+		apos = i;
+	}
+
+	/**
+	 * match() method returns length of the longest string in table starting at held input position start.
+	 * Boolean record: keep the code of each prefix in prefixes.
+	 * Boolean last: no more input follows.
+	 * Post-Condition: returns -1 if the match reaches the end of held input and more input may extend it.
+	 */
+	private int match(int start, boolean record, boolean last){
+		int code = ahead[start] & 0xFF;
+		int len = 1;
+		if(record){
+			prefixes[1] = code;
+		}
+		while(start + len < alim){
+			int next = table.lookup(code, ahead[start + len] & 0xFF);
+			lookups++;
+			if(next < 0){
+				hits += len - 1;
+				return len;
+			}
+			code = next;
+			len++;
+			if(record){
+				prefixes[len] = code;
+			}
+		}
+		hits += len - 1;
+		return last ? len : -1;
+	}
+
+	/**
+	 * finish() method outputs the codeword of the last string, and adds the counts of this stream or block to the
+	 * stats if any.  Nothing is output for empty input.  Does not flush out; the last partial byte is padded with 0
+	 * bits when out is flushed.
+	 */
+	public void finish() throws IOException {
+		if(flexible){
+			parse(true);
+		}
+		if(s >= 0){
+			int width = variablewidth ? LZWCompression.codeWidth(index) : maxwidth;
+			out.write(s, width);
+			bitsout += width;
+			phrases++;
+			s = -1;
+		}
+		if(stats != null){
+			//greedy parsing looks up every byte but the first, and every miss ends a phrase
+			if(!flexible && bytesin > 0){
+				lookups = bytesin - 1;
+				hits = bytesin - phrases;
+			}
+			stats.encoded(bytesin, phrases, clears, resets, lookups, hits);
+		}
+	}
+
+	/**
+	 * close() method releases the table (see LZWDictionary.close()).  The encoder must not be used afterwards.
+	 */
+	public void close(){
+		table.close();
+	}
+}
@@ -0,0 +1,287 @@
+import java.io.*;
+
+/**
+ * LZWInputStream class decompresses anything written by LZWOutputStream or LZWCompress.  The header (if any) is read
+ * on first use: input starting with "LC" is a block container (see BlockCodec), "LZ" configures code width and reset
+ * policy, "LD" also names the trained SharedDictionary it was compressed with, anything else is decoded as headerless
+ * 12-bit codewords.  Codewords are decoded as they are read, so memory stays bounded by the table and one
+ * block per thread regardless of input length.  Can be used in try-with-resources.
+ */
+public class LZWInputStream extends FilterInputStream {
+
+	/**
+	 * LZWInputStream class instance variables
+	 * int threads = number of blocks decompressed in parallel
+	 * SharedDictionary dictionary = trained entries for input with an "LD" header, null if none available
+	 * boolean skipcorrupt = blocks failing their CRC32C are skipped instead of failing the stream
+	 * CompressionStats stats = receives counts of decoding, null for none
+	 * DictionaryType type = selects the decompression tables, in native memory for OFFHEAP
+	 * boolean started = header read and decoder created
+	 * LZWDecoder decoder = decoder of single stream with "LZ" or "LD" header
+	 * FastDecoder fast = decoder of headerless 12-bit codewords
+	 * BlockCodec blocks = block decompressor (blocks)
+	 * DataInputStream data = source of framed blocks
+	 * byte[] block = decoded bytes of current block, pos - end not yet read
+	 * int pos = next unread byte in block
+	 * byte[] single = buffer for read() and skip()
+	 */
+	private int threads;
+	private SharedDictionary dictionary;
+	private boolean skipcorrupt;
+	private CompressionStats stats;
+	private DictionaryType type = DictionaryType.HASH;
+	private boolean started;
+	private LZWDecoder decoder;
+	private FastDecoder fast;
+	private BlockCodec blocks;
+	private DataInputStream data;
+	private byte[] block = new byte[0];
+	private int pos;
+	private byte[] single = new byte[1];
+
+	/**
+	 * LZWInputStream() constructor.
+	 * InputStream in: source of compressed bytes.
+	 */
+	public LZWInputStream(InputStream in){
+		this(in, 1);
+	}
+
+	/**
+	 * LZWInputStream() constructor.
+	 * InputStream in: source of compressed bytes.
+	 * Int threads: number of blocks decompressed in parallel (output written in blocks only).
+	 */
+	public LZWInputStream(InputStream in, int threads){
+		this(in, threads, null);
+	}
+
+	/**
+	 * LZWInputStream() constructor.
+	 * InputStream in: source of compressed bytes.
+	 * Int threads: number of blocks decompressed in parallel (output written in blocks only).
+	 * SharedDictionary dictionary: trained entries the input was compressed with, null if none.
+	 */
+	public LZWInputStream(InputStream in, int threads, SharedDictionary dictionary){
+		super(new PushbackInputStream(in, 1));
+		this.threads = threads;
+		this.dictionary = dictionary;
+	}
+
+	/**
+	 * setSkipCorrupt() method selects whether blocks that fail their CRC32C or cannot be decoded are skipped (true)
+	 * or end the stream with an IOException (false, the default).  Must be called before the first read.
+	 */
+	public void setSkipCorrupt(boolean skipcorrupt){
+		this.skipcorrupt = skipcorrupt;
+	}
+
+	/**
+	 * setStats() method selects where counts of codewords and resets are added as each stream or block ends.  Must be
+	 * called before the first read.
+	 */
+	public void setStats(CompressionStats stats){
+		this.stats = stats;
+	}
+
+	/**
+	 * setDictionaryType() method selects where decompression tables are kept: in native memory for OFFHEAP (released
+	 * by close()), on the heap for every other type.  Must be called before the first read.
+	 */
+	public void setDictionaryType(DictionaryType type){
+		this.type = type;
+	}
+
+	/**
+	 * corruptBlocks() method returns the number of corrupt blocks skipped so far.
+	 */
+	public int corruptBlocks(){
+		return blocks == null ? 0 : blocks.corruptBlocks();
+	}
+
+	/**
+	 * blockIndex() method returns the blocks read so far, complete with the stored index once input has ended, or null
+	 * if the input is not written in blocks.
+	 */
+	public BlockIndex blockIndex() throws IOException {
+		start();
+		return blocks == null ? null : blocks.index();
+	}
+
+	public int read() throws IOException {
+		return read(single, 0, 1) < 0 ? -1 : single[0] & 0xFF;
+	}
+
+	public int read(byte[] b, int off, int len) throws IOException {
+		if(len == 0){
+			return 0;
+		}
+		start();
+		if(fast != null){
+			return fast.read(b, off, len);
+		}
+		if(blocks == null){
+			return decoder.read(b, off, len);
+		}
+		while(pos == block.length){
+			block = blocks.read(data);
+			pos = 0;
+			if(block == null){
+				block = new byte[0];
+				return -1;
+			}
+		}
+		int n = Math.min(len, block.length - pos);
+		System.arraycopy(block, pos, b, off, n);
+		pos += n;
+		return n;
+	}
+
+	/**
+	 * skip() method decodes and discards up to n bytes.
+	 */
+	public long skip(long n) throws IOException {
+		byte[] discard = new byte[(int) Math.min(n, 8192)];
+		long skipped = 0;
+		int count;
+		while(skipped < n && (count = read(discard, 0, (int) Math.min(n - skipped, discard.length))) > 0){
+			skipped += count;
+		}
+		return skipped;
+	}
+
+	/**
+	 * available() method returns number of decoded bytes of the current block not yet read.
+	 */
+	public int available(){
+		return block.length - pos;
+	}
+
+	/**
+	 * transferTo() method decodes all remaining input and writes it to out in bulk.
+	 */
+	public long transferTo(OutputStream out) throws IOException {
+		start();
+		if(fast != null){
+			return fast.transferTo(out);
+		}
+		if(blocks == null){
+			return decoder.transferTo(out);
+		}
+		long total = block.length - pos;
+		out.write(block, pos, block.length - pos);
+		pos = block.length;
+		byte[] next;
+		while((next = blocks.read(data)) != null){
+			out.write(next);
+			total += next.length;
+		}
+		return total;
+	}
+
+	public boolean markSupported(){
+		return false;
+	}
+
+	public void mark(int readlimit){
+	}
+
+	public void reset() throws IOException {
+		throw new IOException("mark/reset not supported");
+	}
+
+	public void close() throws IOException {
+		try{
+			if(blocks != null){
+				blocks.close();
+			}
+			if(decoder != null){
+				decoder.close();
+			}
+		} finally{
+			in.close();
+		}
+	}
+
+	/**
+	 * start() method reads the header and creates the decoder on first use.
+	 * Variable-width output starts with "LZ" + flags header, headerless 12-bit output starts below 0x10.
+	 */
+	private void start() throws IOException {
+		if(started){
+			return;
+		}
+		started = true;
+		PushbackInputStream read = (PushbackInputStream) in;
+		boolean variable = false;
+		boolean blocked = false;
+		int width = 12;
+		ResetPolicy policy = ResetPolicy.ON_FULL;
+		SharedDictionary shared = null;
+
+		int magic = read.read();
+		if(magic == (LZWCompression.MAGIC >>> 8)){
+			int second = read.read();
+			if(second == (LZWCompression.MAGIC_CONTAINER & 0xFF)){
+				data = new DataInputStream(read);
+				blocks = BlockCodec.open(data, threads, dictionary, type);
+				blocks.setSkipCorrupt(skipcorrupt);
+				blocks.setStats(stats);
+				return;
+			}
+			if(second != (LZWCompression.MAGIC & 0xFF) && second != (LZWCompression.MAGIC_DICTIONARY & 0xFF)){
+				throw new IOException("Invalid header");
+			}
+			variable = true;
+			int flags = checkFlags(read.read());
+			width = flags & 0x1F;
+			policy = ResetPolicy.fromId((flags >>> 5) & 0x03);
+			blocked = (flags & LZWCompression.FLAG_BLOCKED) != 0;
+			if(second == (LZWCompression.MAGIC_DICTIONARY & 0xFF)){
+				shared = checkDictionary(new DataInputStream(read).readInt(), dictionary);
+			}
+		} else if(magic >= 0){
+			read.unread(magic);
+		}
+
+		if(blocked){
+			blocks = new BlockCodec(type, width, policy, 0, threads);
+			blocks.setDictionary(shared);
+			blocks.setContainer(false);
+			blocks.setSkipCorrupt(skipcorrupt);
+			blocks.setStats(stats);
+			data = new DataInputStream(read);
+		} else if(!variable){
+			fast = new FastDecoder(read);
+			fast.setStats(stats);
+		} else {
+			decoder = new LZWDecoder(type.createDecode(1 << width), width, variable, policy);
+			decoder.setDictionary(shared);
+			decoder.setStats(stats);
+			decoder.start(new BitReader(read, 65536));
+		}
+	}
+
+	/**
+	 * checkFlags() method validates the flags byte of a header: maxwidth 12 - 16 and a known reset policy.
+	 * Post-Condition: returns flags, throws IOException if invalid.
+	 */
+	public static int checkFlags(int flags) throws IOException {
+		int width = flags & 0x1F;
+		if(flags < 0 || width < 12 || width > 16 || ResetPolicy.fromId((flags >>> 5) & 0x03) == null){
+			throw new IOException("Invalid header flags " + flags);
+		}
+		return flags;
+	}
+
+	/**
+	 * checkDictionary() method checks that the dictionary named in an "LD" header is available.
+	 * Post-Condition: returns dictionary, throws IOException if it is missing or has a different id.
+	 */
+	public static SharedDictionary checkDictionary(int id, SharedDictionary dictionary) throws IOException {
+		if(dictionary == null || dictionary.id() != id){
+			throw new IOException("Compressed with dictionary " + Integer.toHexString(id) + ", which was not given");
+		}
+		return dictionary;
+	}
+}
@@ -0,0 +1,298 @@
+import java.io.*;
+import java.util.Arrays;
+import java.util.zip.Checksum;
+
+/**
+ * LZWOutputStream class compresses everything written to it with the LZW Compression Algorithm and writes the
+ * codewords to the underlying OutputStream, in the same format as LZWCompress (headerless 12-bit codes, or "LZ" header
+ * then variable-width codes or blocks).  Input is encoded as it is written, so memory stays bounded by the table and
+ * one block per thread regardless of input length.  Can be used in try-with-resources; close() writes the last
+ * codeword.  Read back with LZWInputStream.
+ */
+public class LZWOutputStream extends FilterOutputStream {
+
+	/**
+	 * LZWOutputStream class instance variables
+	 * DictionaryType type = dictionary implementation used for compression
+	 * int maxwidth = largest code width
+	 * boolean variablewidth = codes grow from 9 bits to maxwidth after a header (true) or are always 12 bits (false)
+	 * ResetPolicy policy = when the table starts over
+	 * int blocksize = input bytes per block, 0 to write a single stream of codewords
+	 * int threads = number of blocks compressed in parallel
+	 * SharedDictionary dictionary = trained starting entries, null for none
+	 * CompressionStats stats = receives counts of encoding, null for none
+	 * boolean flexible = strings are chosen by flexible parsing instead of greedily (see LZWEncoder)
+	 * boolean storeonly = blocks are stored raw without trying LZW codewords
+	 * long interval = input bytes between checkpoints (single stream)
+	 * CheckpointListener checkpoints = receives checkpoints of the stream, null for none
+	 * Checksum fingerprint = receives the input before each checkpoint, null for none
+	 * Checkpoint resume = checkpoint the stream continues from, null to start a new stream
+	 * boolean started = header written and encoder created
+	 * boolean finished = last codeword written, no more input accepted
+	 * BitWriter bits = destination of codewords (single stream)
+	 * LZWEncoder encoder = encoder of single stream
+	 * BlockCodec blocks = block compressor (blocks)
+	 * byte[] block = input bytes of current block (the first one grows up to blocksize as input is written)
+	 * int fill = number of input bytes in block
+	 */
+	private DictionaryType type;
+	private int maxwidth;
+	private boolean variablewidth;
+	private ResetPolicy policy;
+	private int blocksize;
+	private int threads;
+	private SharedDictionary dictionary;
+	private CompressionStats stats;
+	private boolean flexible;
+	private boolean storeonly;
+	private long interval;
+	private CheckpointListener checkpoints;
+	private Checksum fingerprint;
+	private Checkpoint resume;
+	private boolean started;
+	private boolean finished;
+	private BitWriter bits;
+	private LZWEncoder encoder;
+	private BlockCodec blocks;
+	private byte[] block;
+	private int fill;
+
+	/**
+	 * LZWOutputStream() constructor.
+	 * OutputStream out: destination of headerless 12-bit codewords, HASH dictionary.
+	 */
+	public LZWOutputStream(OutputStream out){
+		this(out, DictionaryType.HASH, 12, false, ResetPolicy.ON_FULL, 0, 1);
+	}
+
+	/**
+	 * LZWOutputStream() constructor.
+	 * OutputStream out: destination of compressed bytes.
+	 * DictionaryType type: dictionary implementation used for compression.
+	 * Int maxwidth: largest code width, 12 - 16.
+	 * Boolean variablewidth: write header then variable-width codes (true) or headerless 12-bit codes (false).
+	 * ResetPolicy policy: when the table starts over (anything other than ON_FULL needs variablewidth).
+	 * Int blocksize: input bytes per block, 0 for a single stream of codewords (blocks need variablewidth).
+	 * Int threads: number of blocks compressed in parallel.
+	 */
+	public LZWOutputStream(OutputStream out, DictionaryType type, int maxwidth, boolean variablewidth,
+			ResetPolicy policy, int blocksize, int threads){
+		this(out, type, maxwidth, variablewidth, policy, blocksize, threads, null);
+	}
+
+	/**
+	 * LZWOutputStream() constructor.
+	 * OutputStream out: destination of compressed bytes.
+	 * DictionaryType type: dictionary implementation used for compression.
+	 * Int maxwidth: largest code width, 12 - 16.
+	 * Boolean variablewidth: write header then variable-width codes (true) or headerless 12-bit codes (false).
+	 * ResetPolicy policy: when the table starts over (anything other than ON_FULL needs variablewidth).
+	 * Int blocksize: input bytes per block, 0 for a single stream of codewords (blocks need variablewidth).
+	 * Int threads: number of blocks compressed in parallel.
+	 * SharedDictionary dictionary: trained starting entries, null for none (needs variablewidth).
+	 */
+	public LZWOutputStream(OutputStream out, DictionaryType type, int maxwidth, boolean variablewidth,
+			ResetPolicy policy, int blocksize, int threads, SharedDictionary dictionary){
+		super(out);
+		if(!variablewidth && (maxwidth != 12 || policy != ResetPolicy.ON_FULL || blocksize > 0
+				|| dictionary != null)){
+			throw new IllegalArgumentException("Headerless output is always 12-bit ON_FULL codewords");
+		}
+		this.type = type;
+		this.maxwidth = maxwidth;
+		this.variablewidth = variablewidth;
+		this.policy = policy;
+		this.blocksize = blocksize;
+		this.threads = threads;
+		this.dictionary = dictionary;
+	}
+
+	/**
+	 * setStats() method selects where counts of codewords, resets and lookups are added as each stream or block is
+	 * finished.  Must be called before the first write.
+	 */
+	public void setStats(CompressionStats stats){
+		this.stats = stats;
+	}
+
+	/**
+	 * setFlexibleParsing() method selects flexible parsing (see LZWEncoder.setFlexibleParsing()).  Output is read back
+	 * the same way.  Must be called before the first write.
+	 */
+	public void setFlexibleParsing(boolean flexible){
+		this.flexible = flexible;
+	}
+
+	/**
+	 * setStoreOnly() method selects whether every block is stored raw (see BlockCodec.setStoreOnly()), for input
+	 * predicted not to compress.  Only output written in blocks can be stored.  Must be called before the first write.
+	 */
+	public void setStoreOnly(boolean storeonly){
+		if(storeonly && blocksize == 0){
+			throw new IllegalArgumentException("Only output written in blocks can be stored");
+		}
+		this.storeonly = storeonly;
+	}
+
+	/**
+	 * setCheckpoints() method selects who receives a Checkpoint at the first table reset after every interval bytes of
+	 * input (see LZWEncoder.setCheckpoints()), and which Checksum the input before each one is added to, if any.  Only a
+	 * single stream of codewords can be checkpointed.  Must be called before the first write.
+	 */
+	public void setCheckpoints(long interval, CheckpointListener checkpoints, Checksum fingerprint){
+		if(blocksize > 0){
+			throw new IllegalArgumentException("Only a single stream of codewords can be checkpointed");
+		}
+		this.interval = interval;
+		this.checkpoints = checkpoints;
+		this.fingerprint = fingerprint;
+	}
+
+	/**
+	 * resume() method continues a stream from a checkpoint taken with the same settings (see LZWEncoder.resume()),
+	 * instead of starting a new one.  The underlying OutputStream must write after the first checkpoint.output() bytes
+	 * of the stream, and input must be written from checkpoint.input() on.  Must be called before the first write.
+	 */
+	public void resume(Checkpoint resume){
+		if(blocksize > 0){
+			throw new IllegalArgumentException("Only a single stream of codewords can be resumed");
+		}
+		this.resume = resume;
+	}
+
+	public void write(int b) throws IOException {
+		write(new byte[] {(byte) b}, 0, 1);
+	}
+
+	public void write(byte[] b, int off, int len) throws IOException {
+		if(finished){
+			throw new IOException("Stream finished");
+		}
+		start();
+		if(blocks == null){
+			encoder.encode(b, off, len);
+			return;
+		}
+
+		//fill blocks, hand each full block to the block compressor
+		while(len > 0){
+			int n = Math.min(len, blocksize - fill);
+			if(fill + n > block.length){
+				block = Arrays.copyOf(block, (int) Math.min(blocksize, Math.max(2L * block.length, fill + n)));
+			}
+			System.arraycopy(b, off, block, fill, n);
+			fill += n;
+			off += n;
+			len -= n;
+			if(fill == blocksize){
+				blocks.write(block, fill);
+				block = blocks.buffer();
+				fill = 0;
+			}
+		}
+	}
+
+	/**
+	 * flush() method flushes the underlying OutputStream.  Codewords still buffered are not forced out, since padding
+	 * a partial byte would corrupt the stream; they are written by finish() or close().
+	 */
+	public void flush() throws IOException {
+		out.flush();
+	}
+
+	/**
+	 * finish() method writes the last codeword (or last block) and flushes, without closing the underlying
+	 * OutputStream.  No more input is accepted afterwards.
+	 */
+	public void finish() throws IOException {
+		if(finished){
+			return;
+		}
+		start();
+		finished = true;
+		if(blocks == null){
+			//last partial byte is padded with 0 bits, table is released either way
+			try{
+				encoder.finish();
+				bits.flush();
+			} finally{
+				encoder.close();
+			}
+			return;
+		}
+		try{
+			if(fill > 0){
+				blocks.write(block, fill);
+			}
+			blocks.finish();
+		} finally{
+			blocks.close();
+		}
+	}
+
+	public void close() throws IOException {
+		try{
+			finish();
+		} finally{
+			out.close();
+		}
+	}
+
+	/**
+	 * writeHeader() method writes the 3-byte header of a single stream of variable-width codes: "LZ", then maxwidth
+	 * (bits 0 - 4) and reset policy (bits 5 - 6).  With a trained dictionary the header starts "LD" instead and is
+	 * followed by the 4-byte dictionary id.  Blocks have a container header instead (see BlockCodec).
+	 */
+	public static void writeHeader(OutputStream out, int maxwidth, ResetPolicy policy, SharedDictionary dictionary)
+			throws IOException {
+		int magic = dictionary == null ? LZWCompression.MAGIC : LZWCompression.MAGIC_DICTIONARY;
+		out.write(magic >>> 8);
+		out.write(magic & 0xFF);
+		out.write(maxwidth | (policy.id() << 5));
+		if(dictionary != null){
+			int id = dictionary.id();
+			out.write(id >>> 24);
+			out.write(id >>> 16);
+			out.write(id >>> 8);
+			out.write(id);
+		}
+	}
+
+	/**
+	 * start() method writes the header (variable-width codes only, unless resumed) and creates the encoder on first
+	 * use.
+	 */
+	private void start() throws IOException {
+		if(started){
+			return;
+		}
+		started = true;
+		if(variablewidth && blocksize == 0 && resume == null){
+			writeHeader(out, maxwidth, policy, dictionary);
+		}
+		if(blocksize > 0){
+			blocks = new BlockCodec(type, maxwidth, policy, blocksize, threads);
+			blocks.setDictionary(dictionary);
+			blocks.setStats(stats);
+			blocks.setFlexibleParsing(flexible);
+			blocks.setStoreOnly(storeonly);
+			blocks.start(out);
+
+			//first block grows with input, so short input does not allocate a whole large block
+			block = new byte[Math.min(blocksize, 65536)];
+		} else {
+			bits = new BitWriter(out, 65536);
+			encoder = new LZWEncoder(type.create(1 << maxwidth), maxwidth, variablewidth, policy);
+			encoder.setDictionary(dictionary);
+			encoder.setStats(stats);
+			encoder.setFlexibleParsing(flexible);
+			encoder.setCheckpoints(interval, !variablewidth ? 0 : dictionary == null ? 3 : 7, checkpoints,
+					fingerprint);
+			if(resume != null){
+				encoder.resume(bits, resume);
+			} else {
+				encoder.start(bits);
+			}
+		}
+	}
+}
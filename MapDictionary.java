@@ -0,0 +1,74 @@
+import java.util.Map;
+
+/**
+ * MapDictionary class is the original String-keyed LZW compression table, backed by either a TreeMap or HashMap.
+ * Builds s + c as a String on every lookup, exactly as LZWCompression did before the primitive dictionaries, so the
+ * TreeMap/HashMap timings in the LZWCompression javadoc can be reproduced.  Kept as a reference implementation.
+ */
+public class MapDictionary implements LZWDictionary {
+
+	/**
+	 * MapDictionary class instance variables
+	 * Map<String, Integer> table = TreeMap or HashMap of string to code
+	 * String[] strings = string entered for each code, used to rebuild s from its code
+	 * int base = first code removed by reset(), 256 unless mark() was called
+	 * int size = next code expected by add()
+	 */
+	private Map<String, Integer> table;
+	private String[] strings;
+	private int base = 256;
+	private int size = 256;
+
+	/**
+	 * MapDictionary() constructor.
+	 * Map<String, Integer> table: empty TreeMap or HashMap to use as table.
+	 * Int capacity: number of codes in table (eg, 4096 for 12-bit codes).
+	 */
+	public MapDictionary(Map<String, Integer> table, int capacity){
+		this.table = table;
+		strings = new String[capacity];
+		for(int i = 0; i < 256; i++){
+			strings[i] = Character.toString((char) i);
+		}
+		reset();
+	}
+
+	public int lookup(int prefix, int next){
+		Integer code = table.get(strings[prefix] + (char) next);
+		return code == null ? -1 : code;
+	}
+
+	public void add(int prefix, int next, int code){
+		String entry = strings[prefix] + (char) next;
+		strings[code] = entry;
+		table.put(entry, code);
+		size = code + 1;
+	}
+
+	public void reset(){
+		if(base > 256){
+			for(int i = base; i < size; i++){
+				//codes the encoder skipped hold no string, or one entered under another code
+				if(strings[i] != null){
+					table.remove(strings[i], i);
+				}
+			}
+			size = base;
+			return;
+		}
+		size = 256;
+		table.clear();
+		for(int i = 0; i < 256; i++){
+			table.put(strings[i], i);
+		}
+	}
+
+	public void mark(){
+		base = size;
+	}
+
+	public void clear(){
+		base = 256;
+		reset();
+	}
+}
@@ -0,0 +1,143 @@
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+
+/**
+ * MappedInputStream class reads a file through FileChannel.map in regions of up to 64MB, so LZWCompress and
+ * LZWDecompress receive input in bulk copies straight from the page cache.  End of input is detected from the file
+ * length, not by exception.  Sources that cannot be mapped (eg, pipes or devices) are read through a 1MB direct
+ * ByteBuffer instead.
+ */
+public class MappedInputStream extends InputStream {
+
+	/**
+	 * MappedInputStream class constants
+	 * REGION = largest mapped region
+	 * DIRECT = size of direct buffer for sources that cannot be mapped
+	 */
+	public static final int REGION = 1 << 26;
+	public static final int DIRECT = 1 << 20;
+
+	/**
+	 * MappedInputStream class instance variables
+	 * FileChannel channel = open file
+	 * boolean mapped = file is read through mapped regions (false for direct buffer)
+	 * long size = file length in bytes, -1 if not mapped
+	 * long position = file offset of next region to map
+	 * ByteBuffer buffer = current mapped region or direct buffer, remaining bytes not yet read
+	 */
+	private FileChannel channel;
+	private boolean mapped;
+	private long size = -1;
+	private long position;
+	private ByteBuffer buffer;
+
+	/**
+	 * MappedInputStream() constructor.
+	 * String file: file to read.
+	 */
+	public MappedInputStream(String file) throws IOException {
+		Path path = Paths.get(file);
+		channel = FileChannel.open(path, StandardOpenOption.READ);
+		mapped = Files.isRegularFile(path);
+		if(mapped){
+			size = channel.size();
+			buffer = ByteBuffer.allocate(0);
+		} else {
+			buffer = ByteBuffer.allocateDirect(DIRECT);
+			buffer.flip();
+		}
+	}
+
+	/**
+	 * length() method returns file length in bytes, or -1 if the source is not mapped and its length is unknown.
+	 */
+	public long length(){
+		return size;
+	}
+
+	public int read() throws IOException {
+		if(!buffer.hasRemaining() && !next()){
+			return -1;
+		}
+		return buffer.get() & 0xFF;
+	}
+
+	public int read(byte[] b, int off, int len) throws IOException {
+		if(len == 0){
+			return 0;
+		}
+		if(!buffer.hasRemaining() && !next()){
+			return -1;
+		}
+		int n = Math.min(len, buffer.remaining());
+		buffer.get(b, off, n);
+		return n;
+	}
+
+	/**
+	 * transferTo() method writes all remaining input to out in 64KB chunks.
+	 * Post-Condition: returns number of bytes written.
+	 */
+	public long transferTo(OutputStream out) throws IOException {
+		byte[] chunk = new byte[65536];
+		long total = 0;
+		int n;
+		while((n = read(chunk, 0, chunk.length)) > 0){
+			out.write(chunk, 0, n);
+			total += n;
+		}
+		return total;
+	}
+
+	/**
+	 * skip() method moves past up to n bytes without reading them when the file is mapped (eg, to resume at the input
+	 * offset of a Checkpoint).
+	 * Post-Condition: returns number of bytes skipped, fewer than n only at end of input.
+	 */
+	public long skip(long n) throws IOException {
+		if(!mapped){
+			return super.skip(n);
+		}
+		if(n <= buffer.remaining()){
+			buffer.position(buffer.position() + (int) Math.max(0, n));
+			return Math.max(0, n);
+		}
+		long skipped = buffer.remaining() + Math.min(n - buffer.remaining(), size - position);
+		position += skipped - buffer.remaining();
+		buffer = ByteBuffer.allocate(0);
+		return skipped;
+	}
+
+	public int available(){
+		return buffer.remaining();
+	}
+
+	public void close() throws IOException {
+		channel.close();
+	}
+
+	/**
+	 * next() method maps the next region, or refills the direct buffer.
+	 * Post-Condition: returns false at end of input.
+	 */
+	private boolean next() throws IOException {
+		if(mapped){
+			if(position >= size){
+				return false;
+			}
+			long n = Math.min(REGION, size - position);
+			buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, n);
+			position += n;
+			return true;
+		}
+		buffer.clear();
+		int n = 0;
+		while(n == 0){
+			n = channel.read(buffer);
+		}
+		buffer.flip();
+		return n > 0;
+	}
+}
@@ -0,0 +1,101 @@
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * OffHeapDecodeDictionary class is the LZW decompression table kept in native memory.  Stores prefix code, suffix byte
+ * and length of each entry like ArrayDecodeDictionary, but in one direct ByteBuffer, so a table for 16-bit codes adds
+ * nothing to the heap.  The entry carried over a reset is still copied into a small heap buffer, which is reused.
+ * Memory is taken from a shared OffHeapPool and handed back by close(); a closed table must not be used again.
+ */
+public class OffHeapDecodeDictionary implements DecodeDictionary {
+
+	/**
+	 * OffHeapDecodeDictionary class constants
+	 * POOL = native memory of closed tables
+	 */
+	public static final OffHeapPool POOL = new OffHeapPool();
+
+	/**
+	 * OffHeapDecodeDictionary class instance variables
+	 * ByteBuffer memory = 8 bytes per code (code of string without its last byte, then length of string in bytes),
+	 * followed by 1 byte per code (last byte of string)
+	 * int capacity = number of codes in table, last bytes start at capacity * 8
+	 * byte[] carry = full bytes of the entry carried over a reset
+	 * int carryCode = code of carried entry, or -1 if none
+	 */
+	private ByteBuffer memory;
+	private int capacity;
+	private byte[] carry = new byte[256];
+	private int carryCode = -1;
+
+	/**
+	 * OffHeapDecodeDictionary() constructor.
+	 * Int capacity: number of codes in table (eg, 65536 for 16-bit codes).
+	 * Initializes 0 - 255 single-byte entries.
+	 */
+	public OffHeapDecodeDictionary(int capacity){
+		this.capacity = capacity;
+		memory = POOL.take(capacity * 9);
+		for(int i = 0; i < 256; i++){
+			memory.putInt(i << 3, -1);
+			memory.putInt((i << 3) + 4, 1);
+			memory.put((capacity << 3) + i, (byte) i);
+		}
+	}
+
+	public void add(int prefix, int first, int code){
+		if(prefix >= code){
+			//prefix belongs to the table before reset, copy its bytes before its code is reused
+			int len = length(prefix) + 1;
+			if(len > carry.length){
+				carry = Arrays.copyOf(carry, len * 2);
+			}
+			write(prefix, carry, 0);
+			carry[len - 1] = (byte) first;
+			carryCode = code;
+			memory.putInt((code << 3) + 4, len);
+			return;
+		}
+		if(code == carryCode){
+			carryCode = -1;
+		}
+		memory.putInt(code << 3, prefix);
+		memory.putInt((code << 3) + 4, length(prefix) + 1);
+		memory.put((capacity << 3) + code, (byte) first);
+	}
+
+	public int capacity(){
+		return capacity;
+	}
+
+	public int length(int code){
+		return memory.getInt((code << 3) + 4);
+	}
+
+	public int write(int code, byte[] out, int off){
+		int len = length(code);
+		int pos = off + len;
+		int suffix = capacity << 3;
+		while(code >= 256){
+			if(code == carryCode){
+				System.arraycopy(carry, 0, out, off, pos - off);
+				return len;
+			}
+			out[--pos] = memory.get(suffix + code);
+			code = memory.getInt(code << 3);
+		}
+		out[--pos] = (byte) code;
+		return len;
+	}
+
+	/**
+	 * close() method hands the native memory of this table back to POOL.  Calling it again has no effect.
+	 */
+	public void close(){
+		if(memory == null){
+			return;
+		}
+		POOL.give(memory);
+		memory = null;
+	}
+}
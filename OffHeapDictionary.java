@@ -0,0 +1,136 @@
+import java.nio.ByteBuffer;
+
+/**
+ * OffHeapDictionary class is an open-addressing LZW compression table kept in native memory.  Probes and stamps keys
+ * with a generation like HashDictionary, but keys and codes live in one direct ByteBuffer, so a table for 16-bit codes
+ * adds nothing to the heap the garbage collector has to scan or copy, and reset() only starts a new generation.
+ * Memory is taken from a shared OffHeapPool and handed back by close(); a closed table must not be used again.
+ */
+public class OffHeapDictionary implements LZWDictionary {
+
+	/**
+	 * OffHeapDictionary class constants
+	 * POOL = native memory of closed tables, each ending with the next generation its slots are free for
+	 */
+	public static final OffHeapPool POOL = new OffHeapPool();
+
+	/**
+	 * OffHeapDictionary class instance variables
+	 * ByteBuffer memory = slots (8 bytes each: generation << HashDictionary.KEY_BITS | (prefix * 256 + byte) + 1, 0
+	 * when never used, then code), followed by the generation to start from when the memory is reused
+	 * int last = byte offset of that generation in memory
+	 * int mask = number of slots - 1 (number of slots is a power of two)
+	 * int generation = stamp of entries added since the last reset()
+	 * int kept = stamp of entries kept across reset() by mark(), 0 if none
+	 */
+	private ByteBuffer memory;
+	private int last;
+	private int mask;
+	private int generation;
+	private int kept;
+
+	/**
+	 * OffHeapDictionary() constructor.
+	 * Int capacity: number of codes in table (eg, 65536 for 16-bit codes).
+	 */
+	public OffHeapDictionary(int capacity){
+		int length = Integer.highestOneBit(Math.max(capacity, 256) - 1) << 2;
+		last = length * 8;
+		mask = length - 1;
+		memory = POOL.take(last + 4);
+
+		//memory of a closed table: every stamp in it is older than the one it recorded
+		generation = Math.max(1, memory.getInt(last));
+	}
+
+	public int lookup(int prefix, int next){
+		int key = ((prefix << 8) | next) + 1;
+		int current = (generation << HashDictionary.KEY_BITS) | key;
+		int marked = (kept << HashDictionary.KEY_BITS) | key;
+		int slot = HashDictionary.hash(key) & mask;
+		while(true){
+			int k = memory.getInt(slot << 3);
+			if(k == current || k == marked){
+				return memory.getInt((slot << 3) + 4);
+			}
+			if(!live(k)){
+				return -1;
+			}
+			slot = (slot + 1) & mask;
+		}
+	}
+
+	/**
+	 * add() method enters prefix + next under code.  A prefix that is not yet defined in this table (eg, a code carried
+	 * over from before reset()) cannot be matched again, so it is not entered.
+	 */
+	public void add(int prefix, int next, int code){
+		if(prefix >= code){
+			return;
+		}
+		int key = ((prefix << 8) | next) + 1;
+		int slot = HashDictionary.hash(key) & mask;
+		while(live(memory.getInt(slot << 3))){
+			slot = (slot + 1) & mask;
+		}
+		memory.putInt(slot << 3, (generation << HashDictionary.KEY_BITS) | key);
+		memory.putInt((slot << 3) + 4, code);
+	}
+
+	/**
+	 * reset() method starts a new generation, leaving the entries kept by mark().
+	 */
+	public void reset(){
+		if(generation == HashDictionary.MAX_GENERATION){
+			restamp();
+		}
+		generation++;
+	}
+
+	public void mark(){
+		kept = generation;
+		reset();
+	}
+
+	public void clear(){
+		kept = 0;
+		reset();
+	}
+
+	/**
+	 * close() method hands the native memory back to POOL, recording a generation newer than any stamp in it so the
+	 * next table using it starts out empty.  Calling it again has no effect.
+	 */
+	public void close(){
+		if(memory == null){
+			return;
+		}
+		clear();
+		memory.putInt(last, generation);
+		POOL.give(memory);
+		memory = null;
+	}
+
+	/**
+	 * live() method returns true if slot key k belongs to the current or kept generation.
+	 */
+	private boolean live(int k){
+		int stamp = k >>> HashDictionary.KEY_BITS;
+		return stamp == generation || (stamp == kept && k != 0);
+	}
+
+	/**
+	 * restamp() method clears every slot but the kept entries, which are stamped generation 1, once the stamps have
+	 * run out.
+	 */
+	private void restamp(){
+		int low = (1 << HashDictionary.KEY_BITS) - 1;
+		for(int i = 0; i < last; i += 8){
+			int k = memory.getInt(i);
+			memory.putInt(i, kept != 0 && k != 0 && k >>> HashDictionary.KEY_BITS == kept
+					? (1 << HashDictionary.KEY_BITS) | (k & low) : 0);
+		}
+		kept = kept == 0 ? 0 : 1;
+		generation = kept;
+	}
+}
@@ -0,0 +1,70 @@
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * OffHeapPool class hands out direct ByteBuffers to the off-heap dictionaries and takes them back when a dictionary is
+ * closed, so a stream opened after another has closed reuses the same native memory instead of reserving more.  Direct
+ * memory is only returned to the operating system once a buffer is no longer referenced and has been collected; trim()
+ * drops every pooled buffer so that can happen.  Safe for use by many threads.
+ */
+public class OffHeapPool {
+
+	/**
+	 * OffHeapPool class constants
+	 * MAX_FREE = most released buffers of one size kept for reuse, further ones are dropped
+	 */
+	public static final int MAX_FREE = 8;
+
+	/**
+	 * OffHeapPool class instance variables
+	 * Map<Integer, Queue<ByteBuffer>> free = released buffers by size in bytes
+	 * AtomicInteger count = number of buffers in free
+	 */
+	private Map<Integer, Queue<ByteBuffer>> free = new ConcurrentHashMap<Integer, Queue<ByteBuffer>>();
+	private AtomicInteger count = new AtomicInteger();
+
+	/**
+	 * take() method returns a direct buffer of bytes bytes in native byte order, a released one if any.
+	 * Post-Condition: a new buffer is all zeros; a released one holds whatever its last owner left in it.
+	 */
+	public ByteBuffer take(int bytes){
+		Queue<ByteBuffer> sized = free.get(bytes);
+		ByteBuffer buffer = sized == null ? null : sized.poll();
+		if(buffer == null){
+			return ByteBuffer.allocateDirect(bytes).order(ByteOrder.nativeOrder());
+		}
+		count.decrementAndGet();
+		return buffer.clear();
+	}
+
+	/**
+	 * give() method takes back a buffer returned by take() for later reuse.  The caller must not use it afterwards.
+	 */
+	public void give(ByteBuffer buffer){
+		Queue<ByteBuffer> sized = free.computeIfAbsent(buffer.capacity(), k -> new ConcurrentLinkedQueue<ByteBuffer>());
+		if(sized.size() < MAX_FREE){
+			sized.offer(buffer);
+			count.incrementAndGet();
+		}
+	}
+
+	/**
+	 * trim() method drops every released buffer, so its native memory is freed once collected.
+	 */
+	public void trim(){
+		free.clear();
+		count.set(0);
+	}
+
+	/**
+	 * size() method returns number of released buffers kept for reuse.
+	 */
+	public int size(){
+		return count.get();
+	}
+}
@@ -0,0 +1,148 @@
+import java.io.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * PipelineInputStream class reads its source on a separate reader thread, filling a fixed ring of large buffers ahead
+ * of the codec.  The codec thread only copies from buffers already filled, so disk reads (and page faults on mapped
+ * files) overlap with compression instead of adding to it.  At most count buffers exist, so memory stays bounded
+ * however far the reader gets ahead.  Bytes are delivered unchanged and in order.
+ */
+public class PipelineInputStream extends InputStream {
+
+	/**
+	 * PipelineInputStream class instance variables
+	 * InputStream in = source read by the reader thread
+	 * BlockingQueue<Chunk> full = buffers filled by the reader thread, in input order
+	 * BlockingQueue<Chunk> free = buffers ready to be filled again
+	 * Chunk current = buffer being read by the codec thread, null if none
+	 * int pos = next unread byte in current
+	 * Thread reader = reader thread
+	 * IOException error = failure of the reader thread, rethrown by read()
+	 * boolean eof = reader thread has delivered all input
+	 */
+	private InputStream in;
+	private BlockingQueue<Chunk> full;
+	private BlockingQueue<Chunk> free;
+	private Chunk current;
+	private int pos;
+	private Thread reader;
+	private volatile IOException error;
+	private boolean eof;
+
+	/**
+	 * PipelineInputStream() constructor.
+	 * InputStream in: source of bytes.
+	 * Int size: bytes per buffer (eg, MappedInputStream.DIRECT).
+	 * Int count: number of buffers, at least 2.
+	 */
+	public PipelineInputStream(InputStream in, int size, int count){
+		this.in = in;
+		full = new ArrayBlockingQueue<Chunk>(count + 1);
+		free = new ArrayBlockingQueue<Chunk>(count);
+		for(int i = 0; i < count; i++){
+			free.add(new Chunk(new byte[size]));
+		}
+		reader = new Thread(this::fill, "lzw-reader");
+		reader.setDaemon(true);
+		reader.start();
+	}
+
+	public int read() throws IOException {
+		if(!next()){
+			return -1;
+		}
+		return current.data[pos++] & 0xFF;
+	}
+
+	public int read(byte[] b, int off, int len) throws IOException {
+		if(len == 0){
+			return 0;
+		}
+		if(!next()){
+			return -1;
+		}
+		int n = Math.min(len, current.length - pos);
+		System.arraycopy(current.data, pos, b, off, n);
+		pos += n;
+		return n;
+	}
+
+	public int available(){
+		return current == null ? 0 : current.length - pos;
+	}
+
+	public void close() throws IOException {
+		reader.interrupt();
+		in.close();
+	}
+
+	/**
+	 * next() method hands the current buffer back to the reader thread once read, and takes the next filled one.
+	 * Post-Condition: returns false at end of input, throws the reader thread's IOException if it failed.
+	 */
+	private boolean next() throws IOException {
+		if(current != null && pos < current.length){
+			return true;
+		}
+		if(eof){
+			return false;
+		}
+		try{
+			if(current != null){
+				free.put(current);
+				current = null;
+			}
+			Chunk chunk = full.take();
+			if(chunk.length < 0){
+				eof = true;
+				if(error != null){
+					throw new IOException("Reader thread failed", error);
+				}
+				return false;
+			}
+			current = chunk;
+			pos = 0;
+			return true;
+		} catch(InterruptedException e){
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted waiting for input");
+		}
+	}
+
+	/**
+	 * fill() method runs on the reader thread: fills free buffers in order until end of input, then queues an end
+	 * marker (length -1).
+	 */
+	private void fill(){
+		try{
+			try{
+				while(true){
+					Chunk chunk = free.take();
+					chunk.length = in.readNBytes(chunk.data, 0, chunk.data.length);
+					if(chunk.length == 0){
+						break;
+					}
+					full.put(chunk);
+				}
+			} catch(IOException e){
+				error = e;
+			}
+			full.put(new Chunk(null));
+		} catch(InterruptedException e){
+			//closed by the codec thread
+		}
+	}
+
+	/**
+	 * Chunk class holds one buffer and the number of valid bytes in it (-1 for the end marker).
+	 */
+	private static class Chunk {
+		private byte[] data;
+		private int length = -1;
+
+		private Chunk(byte[] data){
+			this.data = data;
+		}
+	}
+}
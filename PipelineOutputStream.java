@@ -0,0 +1,197 @@
+import java.io.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Semaphore;
+
+/**
+ * PipelineOutputStream class writes to its destination on a separate writer thread.  The codec thread copies packed
+ * output into a fixed ring of large buffers and hands each full buffer over, so disk writes overlap with compression
+ * instead of adding to it.  When all count buffers are waiting to be written the codec thread blocks, so memory stays
+ * bounded.  Bytes are written unchanged and in order; flush() and close() wait until everything has been written.
+ */
+public class PipelineOutputStream extends OutputStream {
+
+	/**
+	 * PipelineOutputStream class instance variables
+	 * OutputStream out = destination written by the writer thread
+	 * BlockingQueue<Chunk> full = buffers waiting to be written, in output order, plus flush and end markers
+	 * BlockingQueue<Chunk> free = buffers ready to be filled again
+	 * Chunk current = buffer being filled by the codec thread
+	 * Semaphore flushed = released by the writer thread each time it reaches a flush marker
+	 * Thread writer = writer thread
+	 * IOException error = first failure of the writer thread, rethrown by write(), flush() and close()
+	 * boolean closed = close() has been called
+	 */
+	private OutputStream out;
+	private BlockingQueue<Chunk> full;
+	private BlockingQueue<Chunk> free;
+	private Chunk current;
+	private Semaphore flushed = new Semaphore(0);
+	private Thread writer;
+	private volatile IOException error;
+	private boolean closed;
+
+	/**
+	 * PipelineOutputStream() constructor.
+	 * OutputStream out: destination of bytes.
+	 * Int size: bytes per buffer (eg, MappedInputStream.DIRECT).
+	 * Int count: number of buffers, at least 2.
+	 */
+	public PipelineOutputStream(OutputStream out, int size, int count){
+		this.out = out;
+		full = new ArrayBlockingQueue<Chunk>(count + 2);
+		free = new ArrayBlockingQueue<Chunk>(count);
+		for(int i = 1; i < count; i++){
+			free.add(new Chunk(new byte[size]));
+		}
+		current = new Chunk(new byte[size]);
+		writer = new Thread(this::drain, "lzw-writer");
+		writer.setDaemon(true);
+		writer.start();
+	}
+
+	public void write(int b) throws IOException {
+		if(current.length == current.data.length){
+			handOver();
+		}
+		current.data[current.length++] = (byte) b;
+	}
+
+	public void write(byte[] b, int off, int len) throws IOException {
+		while(len > 0){
+			if(current.length == current.data.length){
+				handOver();
+			}
+			int n = Math.min(len, current.data.length - current.length);
+			System.arraycopy(b, off, current.data, current.length, n);
+			current.length += n;
+			off += n;
+			len -= n;
+		}
+	}
+
+	/**
+	 * flush() method hands over the partly filled buffer and waits until the writer thread has written and flushed
+	 * everything.
+	 */
+	public void flush() throws IOException {
+		if(current.length > 0){
+			handOver();
+		}
+		put(Chunk.FLUSH);
+		try{
+			flushed.acquire();
+		} catch(InterruptedException e){
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted waiting for output");
+		}
+		check();
+	}
+
+	public void close() throws IOException {
+		if(closed){
+			return;
+		}
+		closed = true;
+		try{
+			if(current.length > 0){
+				handOver();
+			}
+		} finally{
+			try{
+				put(Chunk.END);
+				writer.join();
+			} catch(InterruptedException e){
+				Thread.currentThread().interrupt();
+				throw new InterruptedIOException("Interrupted waiting for output");
+			} finally{
+				out.close();
+			}
+		}
+		check();
+	}
+
+	/**
+	 * handOver() method queues the current buffer for writing and takes a free one, waiting if none is free.
+	 */
+	private void handOver() throws IOException {
+		check();
+		put(current);
+		try{
+			current = free.take();
+		} catch(InterruptedException e){
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted waiting for output");
+		}
+		current.length = 0;
+	}
+
+	/**
+	 * put() method queues a buffer or marker for the writer thread.
+	 */
+	private void put(Chunk chunk) throws IOException {
+		try{
+			full.put(chunk);
+		} catch(InterruptedException e){
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted waiting for output");
+		}
+	}
+
+	/**
+	 * check() method rethrows a failure of the writer thread.
+	 */
+	private void check() throws IOException {
+		if(error != null){
+			throw new IOException("Writer thread failed", error);
+		}
+	}
+
+	/**
+	 * drain() method runs on the writer thread: writes queued buffers in order until the end marker.  After a failure
+	 * buffers are still recycled (but not written), so the codec thread never waits forever.
+	 */
+	private void drain(){
+		try{
+			while(true){
+				Chunk chunk = full.take();
+				if(chunk == Chunk.END){
+					return;
+				}
+				try{
+					if(error == null){
+						if(chunk == Chunk.FLUSH){
+							out.flush();
+						} else {
+							out.write(chunk.data, 0, chunk.length);
+						}
+					}
+				} catch(IOException e){
+					error = e;
+				}
+				if(chunk == Chunk.FLUSH){
+					flushed.release();
+				} else {
+					free.put(chunk);
+				}
+			}
+		} catch(InterruptedException e){
+			//abandoned, nothing left to write
+		}
+	}
+
+	/**
+	 * Chunk class holds one buffer and the number of valid bytes in it.  FLUSH and END are markers without a buffer.
+	 */
+	private static class Chunk {
+		private static final Chunk FLUSH = new Chunk(null);
+		private static final Chunk END = new Chunk(null);
+
+		private byte[] data;
+		private int length;
+
+		private Chunk(byte[] data){
+			this.data = data;
+		}
+	}
+}
@@ -0,0 +1,73 @@
+/**
+ * RatioMonitor class tracks compression ratio (output bits per input byte) over consecutive windows of input for the
+ * ADAPTIVE reset policy.  Remembers the best window since the last reset; once a window is worse than the best by more
+ * than the tolerance, or larger than its input, the dictionary has gone stale and should be cleared.
+ */
+public class RatioMonitor {
+
+	/**
+	 * RatioMonitor class instance variables
+	 * long window = input bytes per window
+	 * double tolerance = allowed fraction a window may be worse than the best window (eg, 0.1 for 10%)
+	 * long startin = input bytes at start of current window
+	 * long startout = output bits at start of current window
+	 * double best = lowest bits per byte of any complete window since reset
+	 */
+	private long window;
+	private double tolerance;
+	private long startin;
+	private long startout;
+	private double best;
+
+	/**
+	 * RatioMonitor() constructor.
+	 * Uses 16KB windows and 10% tolerance.
+	 */
+	public RatioMonitor(){
+		this(16384, 0.1);
+	}
+
+	/**
+	 * RatioMonitor() constructor.
+	 * Long window: input bytes per window.
+	 * Double tolerance: allowed fraction a window may be worse than the best window.
+	 */
+	public RatioMonitor(long window, double tolerance){
+		this.window = window;
+		this.tolerance = tolerance;
+		reset(0, 0);
+	}
+
+	/**
+	 * reset() method starts tracking over after the dictionary is cleared.
+	 * Long bytesin: total input bytes so far.
+	 * Long bitsout: total output bits so far.
+	 */
+	public void reset(long bytesin, long bitsout){
+		startin = bytesin;
+		startout = bitsout;
+		best = Double.MAX_VALUE;
+	}
+
+	/**
+	 * degraded() method closes the current window once it holds enough input.
+	 * Long bytesin: total input bytes so far.
+	 * Long bitsout: total output bits so far.
+	 * Post-Condition: returns true if the window just closed compressed worse than the best window by more than the
+	 * tolerance, or expanded its input.
+	 */
+	public boolean degraded(long bytesin, long bitsout){
+		long bytes = bytesin - startin;
+		if(bytes < window){
+			return false;
+		}
+		double ratio = (double) (bitsout - startout) / bytes;
+		startin = bytesin;
+		startout = bitsout;
+		if(ratio > best * (1 + tolerance) || ratio > 8){
+			return true;
+		}
+		best = Math.min(best, ratio);
+		return false;
+	}
+}
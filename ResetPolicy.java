@@ -0,0 +1,41 @@
+/**
+ * ResetPolicy enum selects when LZWCompression starts over with a fresh table.
+ * NEVER = keep the full table for the rest of the input
+ * ON_FULL = reset as soon as the table is full (original behavior)
+ * ADAPTIVE = keep the full table while it compresses well; emit a CLEAR code and reset when the compression ratio
+ * over a sliding window degrades (see RatioMonitor)
+ *
+ * Policy id is stored in the variable-width header so LZWDecompress follows the same policy.
+ */
+public enum ResetPolicy {
+	ON_FULL(0), NEVER(1), ADAPTIVE(2);
+
+	/**
+	 * ResetPolicy enum instance variables
+	 * int id = value stored in header
+	 */
+	private final int id;
+
+	ResetPolicy(int id){
+		this.id = id;
+	}
+
+	/**
+	 * id() method returns value stored in header for this policy.
+	 */
+	public int id(){
+		return id;
+	}
+
+	/**
+	 * fromId() method returns the policy stored in a header, or null if id is unknown.
+	 */
+	public static ResetPolicy fromId(int id){
+		for(ResetPolicy policy : values()){
+			if(policy.id == id){
+				return policy;
+			}
+		}
+		return null;
+	}
+}
@@ -0,0 +1,221 @@
+import java.io.*;
+import java.util.*;
+import java.util.zip.CRC32;
+
+/**
+ * SharedDictionary class holds table entries trained from a sample corpus, used as the starting table of both
+ * compressor and decompressor instead of the 256 single-byte entries alone.  Small records (eg, single rows of
+ * CrimeLatLonXY1990.csv) are too short to build a useful table of their own, so starting from strings common to the
+ * whole corpus shortens every record.  Entries are reloaded after every reset.  Output compressed with a dictionary
+ * records its id in the header; the same dictionary file must be given to decompress it.
+ *
+ * Entries are kept in code order, each one a prefix (a single byte 0 - 255, or 256 + index of an earlier entry) and a
+ * suffix byte, so they can be loaded at any first code (256, or 257 when CLEAR_CODE is reserved).
+ */
+public class SharedDictionary {
+
+	/**
+	 * SharedDictionary class constants
+	 * MAGIC = first four bytes of a dictionary file ("LZDT")
+	 * DEFAULT_ENTRIES = entries trained by default, the table then starts at code 2048 (11-bit codes)
+	 */
+	public static final int MAGIC = 0x4C5A4454;
+	public static final int DEFAULT_ENTRIES = 1791;
+
+	/**
+	 * SharedDictionary class instance variables
+	 * int[] prefix = prefix of each entry, byte value or 256 + index of earlier entry
+	 * byte[] suffix = last byte of each entry
+	 * int id = CRC32 of the entries, recorded in the header of compressed output
+	 */
+	private int[] prefix;
+	private byte[] suffix;
+	private int id;
+
+	/**
+	 * SharedDictionary() constructor.
+	 * Int[] prefix: prefix of each entry, byte value or 256 + index of earlier entry.
+	 * Byte[] suffix: last byte of each entry.
+	 */
+	public SharedDictionary(int[] prefix, byte[] suffix){
+		if(prefix.length != suffix.length){
+			throw new IllegalArgumentException("Prefix and suffix counts differ");
+		}
+		CRC32 crc = new CRC32();
+		for(int i = 0; i < prefix.length; i++){
+			if(prefix[i] < 0 || prefix[i] >= 256 + i){
+				throw new IllegalArgumentException("Entry " + i + " has invalid prefix " + prefix[i]);
+			}
+			crc.update(prefix[i] >>> 8);
+			crc.update(prefix[i]);
+			crc.update(suffix[i]);
+		}
+		this.prefix = prefix;
+		this.suffix = suffix;
+		id = (int) crc.getValue();
+	}
+
+	/**
+	 * train() method builds a dictionary from sample records.  Runs LZW over every sample (one table for all
+	 * samples, never reset) counting how often each entry is matched, then keeps the entries matched most often.  An
+	 * entry is never matched more often than its prefix, so the kept entries always include their prefixes.
+	 * List<byte[]> samples: sample records, eg, rows of a CSV file.
+	 * Int entries: largest number of entries to keep.
+	 */
+	public static SharedDictionary train(List<byte[]> samples, int entries){
+		int capacity = 1 << 16;
+		LZWDictionary table = new HashDictionary(capacity);
+		int[] prefixes = new int[capacity];
+		byte[] suffixes = new byte[capacity];
+		int[] uses = new int[capacity];
+		int index = LZWCompression.FIRST_CODE;
+
+		for(byte[] sample : samples){
+			int s = -1;
+			for(byte b : sample){
+				int c = b & 0xFF;
+				if(s < 0){
+					s = c;
+					continue;
+				}
+				int next = table.lookup(s, c);
+				if(next >= 0){
+					uses[next]++;
+					s = next;
+					continue;
+				}
+				if(index < capacity){
+					table.add(s, c, index);
+					prefixes[index] = s;
+					suffixes[index] = (byte) c;
+					index += 1;
+				}
+				s = c;
+			}
+		}
+
+		//most used entries first, ties in code order so prefixes come before their entries
+		Integer[] codes = new Integer[index - LZWCompression.FIRST_CODE];
+		for(int i = 0; i < codes.length; i++){
+			codes[i] = LZWCompression.FIRST_CODE + i;
+		}
+		Arrays.sort(codes, (a, b) -> uses[a] != uses[b] ? Integer.compare(uses[b], uses[a]) : Integer.compare(a, b));
+		int count = 0;
+		while(count < Math.min(entries, codes.length) && uses[codes[count]] > 0){
+			count++;
+		}
+		Arrays.sort(codes, 0, count);
+
+		//renumber kept entries from 256 in code order
+		int[] renumber = new int[index];
+		int[] prefix = new int[count];
+		byte[] suffix = new byte[count];
+		for(int i = 0; i < count; i++){
+			int code = codes[i];
+			renumber[code] = LZWCompression.FIRST_CODE + i;
+			prefix[i] = prefixes[code] < LZWCompression.FIRST_CODE ? prefixes[code] : renumber[prefixes[code]];
+			suffix[i] = suffixes[code];
+		}
+		return new SharedDictionary(prefix, suffix);
+	}
+
+	/**
+	 * id() method returns the id recorded in the header of output compressed with this dictionary.
+	 */
+	public int id(){
+		return id;
+	}
+
+	/**
+	 * size() method returns the number of trained entries.
+	 */
+	public int size(){
+		return prefix.length;
+	}
+
+	/**
+	 * load() method enters all entries into a compression table, starting at code firstcode.
+	 * Post-Condition: returns next code to enter into table.
+	 */
+	public int load(LZWDictionary table, int firstcode){
+		for(int i = 0; i < prefix.length; i++){
+			table.add(code(prefix[i], firstcode), suffix[i] & 0xFF, firstcode + i);
+		}
+		return firstcode + prefix.length;
+	}
+
+	/**
+	 * load() method enters all entries into a decompression table, starting at code firstcode.
+	 * Post-Condition: returns next code to enter into table.
+	 */
+	public int load(DecodeDictionary decomp, int firstcode){
+		for(int i = 0; i < prefix.length; i++){
+			decomp.add(code(prefix[i], firstcode), suffix[i] & 0xFF, firstcode + i);
+		}
+		return firstcode + prefix.length;
+	}
+
+	/**
+	 * write() method serializes the dictionary: MAGIC, entry count, then prefix (2 bytes) and suffix of each entry.
+	 */
+	public void write(OutputStream out) throws IOException {
+		DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out));
+		data.writeInt(MAGIC);
+		data.writeInt(prefix.length);
+		for(int i = 0; i < prefix.length; i++){
+			data.writeShort(prefix[i]);
+			data.writeByte(suffix[i]);
+		}
+		data.flush();
+	}
+
+	/**
+	 * read() method reads a dictionary serialized by write().
+	 */
+	public static SharedDictionary read(InputStream in) throws IOException {
+		DataInputStream data = new DataInputStream(new BufferedInputStream(in));
+		if(data.readInt() != MAGIC){
+			throw new IOException("Not a dictionary file");
+		}
+		int count = data.readInt();
+		if(count < 0 || count > 1 << 16){
+			throw new IOException("Invalid dictionary size " + count);
+		}
+		int[] prefix = new int[count];
+		byte[] suffix = new byte[count];
+		for(int i = 0; i < count; i++){
+			prefix[i] = data.readUnsignedShort();
+			suffix[i] = data.readByte();
+		}
+		try{
+			return new SharedDictionary(prefix, suffix);
+		} catch(IllegalArgumentException e){
+			throw new IOException("Invalid dictionary: " + e.getMessage());
+		}
+	}
+
+	/**
+	 * save() method writes the dictionary to file.
+	 */
+	public void save(String file) throws IOException {
+		try(OutputStream out = new FileOutputStream(file)){
+			write(out);
+		}
+	}
+
+	/**
+	 * open() method reads a dictionary from file.
+	 */
+	public static SharedDictionary open(String file) throws IOException {
+		try(InputStream in = new FileInputStream(file)){
+			return read(in);
+		}
+	}
+
+	/**
+	 * code() method returns the table code of an entry prefix when entries start at firstcode.
+	 */
+	private static int code(int prefix, int firstcode){
+		return prefix < LZWCompression.FIRST_CODE ? prefix : firstcode + prefix - LZWCompression.FIRST_CODE;
+	}
+}
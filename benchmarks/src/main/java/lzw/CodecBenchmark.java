@@ -0,0 +1,94 @@
+package lzw;
+
+import java.io.*;
+import java.nio.file.*;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * CodecBenchmark class measures LZWCompress and LZWDecompress end to end, file to file, on the synthetic corpora of
+ * LZWBenchmark (random, repetitive text, CSV-like and binary), parameterised by dictionary implementation and input
+ * size.  Throughput is reported as megabytes/s (see Throughput); run with -prof gc for allocation, where
+ * gc.alloc.rate.norm divided by size is bytes allocated per input byte.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CodecBenchmark {
+
+	/**
+	 * CodecBenchmark class instance variables
+	 * String corpus = synthetic corpus (see LZWBenchmark.corpus())
+	 * DictionaryType type = dictionary implementation
+	 * int size = input bytes
+	 * Path dir = working directory for input and output files
+	 * String input, packed, output = input file, its compressed file and decompressed file
+	 * LZWCompression compression = codec under test
+	 * PrintStream console = System.out, replaced while benchmarking to drop the progress lines of the codec
+	 */
+	@Param({"random", "text", "csv", "binary"})
+	public String corpus;
+
+	@Param({"ARRAY", "HASH", "HASHMAP", "TREEMAP"})
+	public DictionaryType type;
+
+	@Param({"65536", "1048576", "16777216"})
+	public int size;
+
+	private Path dir;
+	private String input;
+	private String packed;
+	private String output;
+	private LZWCompression compression;
+	private PrintStream console;
+
+	/**
+	 * setup() method writes the corpus and its compressed file, checking that it decompresses to the input.
+	 */
+	@Setup(Level.Trial)
+	public void setup() throws IOException {
+		byte[] data = LZWBenchmark.corpus(corpus, size);
+		dir = Files.createTempDirectory("lzwjmh");
+		input = dir.resolve("input").toString();
+		packed = dir.resolve("input.lzw").toString();
+		output = dir.resolve("output").toString();
+		Files.write(Paths.get(input), data);
+		console = System.out;
+		System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+		compression = new LZWCompression(type);
+		compression.LZWCompress(input, packed);
+		compression.LZWDecompress(packed, output);
+		if(!Arrays.equals(data, Files.readAllBytes(Paths.get(output)))){
+			throw new IOException("Round trip failed: " + corpus + " " + size + " " + type);
+		}
+	}
+
+	/**
+	 * tearDown() method restores System.out and deletes the working directory.
+	 */
+	@TearDown(Level.Trial)
+	public void tearDown() throws IOException {
+		System.setOut(console);
+		compression.close();
+		Files.delete(Paths.get(input));
+		Files.delete(Paths.get(packed));
+		Files.delete(Paths.get(output));
+		Files.delete(dir);
+	}
+
+	@Benchmark
+	public void compress(Throughput throughput){
+		compression.LZWCompress(input, packed);
+		throughput.add(size);
+	}
+
+	@Benchmark
+	public void decompress(Throughput throughput){
+		compression.LZWDecompress(packed, output);
+		throughput.add(size);
+	}
+}
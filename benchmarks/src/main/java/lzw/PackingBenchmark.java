@@ -0,0 +1,73 @@
+package lzw;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * PackingBenchmark class measures expByte and unexpByte on their own, over size bytes of 12-bit values, against the
+ * bulk BytePacker kernel of Compressor and Decompressor.  Throughput is reported as megabytes/s (see Throughput).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PackingBenchmark {
+
+	/**
+	 * PackingBenchmark class instance variables
+	 * int size = input bytes
+	 * byte[] data = random input
+	 * byte[] packed = data packed by BytePacker
+	 * byte[] unpacked = destination of BytePacker.unpack()
+	 * LZWCompression compression = owner of expByte and unexpByte
+	 */
+	@Param({"65536", "1048576"})
+	public int size;
+
+	private byte[] data;
+	private byte[] packed;
+	private byte[] unpacked;
+	private LZWCompression compression = new LZWCompression();
+
+	@Setup(Level.Trial)
+	public void setup(){
+		data = LZWBenchmark.corpus("random", size);
+		packed = new byte[BytePacker.packedLength(size)];
+		unpacked = new byte[size];
+		BytePacker.pack(data, 0, size, packed, 0);
+	}
+
+	@Benchmark
+	public long expByte(Throughput throughput){
+		long sink = 0;
+		for(int i = 0; i + 1 < size; i += 2){
+			sink += compression.expByte(((data[i] & 0xFF) << 4) | (data[i + 1] & 0x0F)).length();
+		}
+		throughput.add(size);
+		return sink;
+	}
+
+	@Benchmark
+	public long unexpByte(Throughput throughput){
+		long sink = 0;
+		for(int i = 0; i + 1 < size; i++){
+			sink += compression.unexpByte(data[i], data[i + 1], (i & 1) == 0);
+		}
+		throughput.add(size);
+		return sink;
+	}
+
+	@Benchmark
+	public int pack(Throughput throughput){
+		throughput.add(size);
+		return BytePacker.pack(data, 0, size, packed, 0);
+	}
+
+	@Benchmark
+	public int unpack(Throughput throughput){
+		throughput.add(size);
+		return BytePacker.unpack(packed, 0, packed.length, unpacked, 0);
+	}
+}
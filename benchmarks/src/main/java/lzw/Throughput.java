@@ -0,0 +1,32 @@
+package lzw;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Throughput class counts input megabytes handled by each benchmark invocation, so JMH reports MB/s next to ops/s.
+ */
+@State(Scope.Thread)
+@AuxCounters(AuxCounters.Type.OPERATIONS)
+public class Throughput {
+
+	/**
+	 * Throughput class instance variables
+	 * double megabytes = input MB handled in this iteration, reported as megabytes/s
+	 */
+	public double megabytes;
+
+	/**
+	 * clear() method starts the count over for each iteration.
+	 */
+	@Setup(Level.Iteration)
+	public void clear(){
+		megabytes = 0;
+	}
+
+	/**
+	 * add() method counts bytes of input.
+	 */
+	public void add(int bytes){
+		megabytes += bytes / (double) (1 << 20);
+	}
+}
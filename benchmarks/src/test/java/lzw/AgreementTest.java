@@ -0,0 +1,61 @@
+package lzw;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.util.*;
+import org.junit.jupiter.api.Test;
+
+/**
+ * AgreementTest class checks that every dictionary type writes the same bytes for CSV rows compressed by flexible
+ * parsing with a trained SharedDictionary, each row twice with the same LZWCompression, so entries lost from the
+ * shared dictionary would show up on the second pass.
+ */
+public class AgreementTest {
+
+	/**
+	 * AgreementTest class constants
+	 * SIZE = bytes of CSV-like corpus used for training, and again for the rows compressed
+	 */
+	private static final int SIZE = 1 << 20;
+
+	@Test
+	public void flexibleParsingAgreesAcrossDictionaryTypes() throws IOException {
+		byte[] sample = LZWBenchmark.corpus("csv", SIZE * 2);
+		List<byte[]> training = new ArrayList<byte[]>();
+		List<byte[]> rows = new ArrayList<byte[]>();
+		int start = 0;
+		for(int i = 0; i < sample.length; i++){
+			if(sample[i] == '\n'){
+				(start < SIZE ? training : rows).add(Arrays.copyOfRange(sample, start, i + 1));
+				start = i + 1;
+			}
+		}
+		SharedDictionary dictionary = SharedDictionary.train(training, SharedDictionary.DEFAULT_ENTRIES);
+		List<byte[]> expected = null;
+		for(DictionaryType type : DictionaryType.values()){
+			try(LZWCompression compression = new LZWCompression(type)){
+				compression.setMaxCodeWidth(16);
+				compression.setDictionary(dictionary);
+				compression.setFlexibleParsing(true);
+				List<byte[]> packed = new ArrayList<byte[]>();
+				for(int pass = 0; pass < 2; pass++){
+					for(byte[] row : rows){
+						packed.add(compression.compress(row, 0, row.length));
+					}
+				}
+				packed.add(compression.compress(sample, 0, sample.length));
+				if(expected == null){
+					expected = packed;
+				}
+				for(int i = 0; i < packed.size(); i++){
+					byte[] input = i < 2 * rows.size() ? rows.get(i % rows.size()) : sample;
+					assertArrayEquals(input, compression.decompress(packed.get(i), 0, packed.get(i).length),
+							"Round trip failed: flexible " + type + " record " + i);
+					assertArrayEquals(expected.get(i), packed.get(i),
+							"Flexible parsing output differs: " + type + " record " + i);
+				}
+			}
+		}
+	}
+}